@@ -4,7 +4,7 @@ import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
-import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
 import software.amazon.awssdk.regions.Region;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.presigner.S3Presigner;
@@ -13,6 +13,8 @@ import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.inject.Produces;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.time.Duration;
+
 @ApplicationScoped
 @RegisterForReflection
 public class S3Config {
@@ -26,13 +28,32 @@ public class S3Config {
     @ConfigProperty(name = "aws.credentials.secret-access-key", defaultValue = "")
     String secretAccessKey;
 
+    @ConfigProperty(name = "aws.s3.http.max-connections")
+    int maxConnections;
+
+    @ConfigProperty(name = "aws.s3.http.connection-timeout")
+    Duration connectionTimeout;
+
+    @ConfigProperty(name = "aws.s3.http.socket-timeout")
+    Duration socketTimeout;
+
+    @ConfigProperty(name = "aws.s3.http.connection-acquisition-timeout")
+    Duration connectionAcquisitionTimeout;
+
     @Produces
     @ApplicationScoped
     public S3Client s3Client() {
         return S3Client.builder()
                 .region(Region.of(region))
                 .credentialsProvider(getCredentialsProvider())
-                .httpClient(UrlConnectionHttpClient.builder().build())
+                // Pooled client: keeps connections alive across calls and allows parallel part uploads
+                .httpClient(ApacheHttpClient.builder()
+                        .maxConnections(maxConnections)
+                        .connectionTimeout(connectionTimeout)
+                        .socketTimeout(socketTimeout)
+                        .connectionAcquisitionTimeout(connectionAcquisitionTimeout)
+                        .tcpKeepAlive(true)
+                        .build())
                 .build();
     }
 
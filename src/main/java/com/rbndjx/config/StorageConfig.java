@@ -0,0 +1,35 @@
+package com.rbndjx.config;
+
+import com.rbndjx.service.InMemoryStorageBackend;
+import com.rbndjx.service.LocalStorageBackend;
+import com.rbndjx.service.S3StorageBackend;
+import com.rbndjx.service.StorageBackend;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Instance;
+import jakarta.enterprise.inject.Produces;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+/**
+ * Selects the storage backend: {@code s3} (default), {@code local} for a directory on disk,
+ * or {@code memory} for development and tests. Only the selected implementation is instantiated.
+ */
+@ApplicationScoped
+public class StorageConfig {
+
+    @ConfigProperty(name = "portfolio.storage.backend")
+    String backend;
+
+    @Produces
+    @ApplicationScoped
+    public StorageBackend storageBackend(Instance<S3StorageBackend> s3,
+                                         Instance<LocalStorageBackend> local,
+                                         Instance<InMemoryStorageBackend> memory) {
+        return switch (backend) {
+            case "s3" -> s3.get();
+            case "local" -> local.get();
+            case "memory" -> memory.get();
+            default -> throw new IllegalStateException(
+                    "portfolio.storage.backend must be 's3', 'local' or 'memory', got '" + backend + "'");
+        };
+    }
+}
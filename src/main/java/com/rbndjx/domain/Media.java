@@ -2,11 +2,26 @@ package com.rbndjx.domain;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.annotations.BatchSize;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "media")
+@Table(name = "media", indexes = {
+    // Identical uploads share one stored object: several rows may have the same hash and key
+    @Index(name = "idx_media_content_sha256", columnList = "content_sha256"),
+    @Index(name = "idx_media_storage_key", columnList = "storage_key"),
+    // Library listing, newest first: one index per filter, each ending with the sort key
+    @Index(name = "idx_media_uploaded_at_id", columnList = "uploaded_at, id"),
+    @Index(name = "idx_media_type_uploaded_at_id", columnList = "type, uploaded_at, id"),
+    @Index(name = "idx_media_mime_type_uploaded_at_id", columnList = "mime_type, uploaded_at, id"),
+    @Index(name = "idx_media_uploaded_by_uploaded_at_id", columnList = "uploaded_by, uploaded_at, id"),
+    // Also serves unattached media (project_id IS NULL) in upload order
+    @Index(name = "idx_media_project_id_uploaded_at_id", columnList = "project_id, uploaded_at, id")
+})
 public class Media extends PanacheEntityBase {
 
     @Id
@@ -20,6 +35,10 @@ public class Media extends PanacheEntityBase {
     @Column(name = "url", columnDefinition = "TEXT", nullable = false)
     public String url;
 
+    // Key of the object in the storage backend; null only on rows predating it, until backfilled
+    @Column(name = "storage_key", length = 1024)
+    public String storageKey;
+
     @Column(name = "alt", length = 255)
     public String alt;
 
@@ -32,6 +51,10 @@ public class Media extends PanacheEntityBase {
     @Column(name = "mime_type", length = 100, nullable = false)
     public String mimeType;
 
+    // Storage folder the file was uploaded to
+    @Column(name = "folder", length = 255)
+    public String folder;
+
     @Column(name = "size", nullable = false)
     public Long size;
 
@@ -41,10 +64,26 @@ public class Media extends PanacheEntityBase {
     @Column(name = "uploaded_by", length = 255)
     public String uploadedBy;
 
+    // Hex SHA-256 of the file; null for media whose content was never hashed
+    @Column(name = "content_sha256", length = 64)
+    public String contentSha256;
+
+    // BlurHash of the photo, computed after upload
+    @Column(name = "placeholder", length = 64)
+    public String placeholder;
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "project_id")
     public Project project;
 
+    // Filled asynchronously after upload, smallest first; batch-loaded when listing many media
+    @ElementCollection
+    @CollectionTable(name = "media_variant", joinColumns = @JoinColumn(name = "media_id"),
+            indexes = @Index(name = "idx_media_variant_storage_key", columnList = "storage_key"))
+    @OrderBy("width")
+    @BatchSize(size = 50)
+    public List<MediaVariant> variants = new ArrayList<>();
+
     public Media() {
         this.id = UUID.randomUUID().toString();
         this.uploadedAt = LocalDateTime.now();
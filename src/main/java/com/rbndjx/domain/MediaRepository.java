@@ -2,8 +2,135 @@ package com.rbndjx.domain;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.LockModeType;
+
+import io.quarkus.panache.common.Parameters;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 @ApplicationScoped
 public class MediaRepository implements PanacheRepositoryBase<Media, String> {
     // Méthodes CRUD de base fournies par Panache
+
+    /**
+     * A media with this content, locked so the object it points at cannot lose its last
+     * reference before a new row sharing it is committed.
+     */
+    public Optional<Media> findByContentSha256(String contentSha256) {
+        return find("contentSha256 = ?1 AND storageKey IS NOT NULL ORDER BY id", contentSha256)
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                .firstResultOptional();
+    }
+
+    /**
+     * Locks every media sharing one of the objects, in id order so concurrent deletions serialize.
+     */
+    public List<Media> lockByStorageKeys(Collection<String> storageKeys) {
+        return find("storageKey IN ?1 ORDER BY id", storageKeys)
+                .withLock(LockModeType.PESSIMISTIC_WRITE)
+                .list();
+    }
+
+    /**
+     * Those of the given keys still referenced by media other than the excluded ones.
+     */
+    public Set<String> findKeysReferencedOutside(Collection<String> storageKeys, Collection<String> excludedIds) {
+        return new HashSet<>(getEntityManager()
+                .createQuery("SELECT DISTINCT m.storageKey FROM Media m WHERE m.storageKey IN :keys AND m.id NOT IN :ids", String.class)
+                .setParameter("keys", storageKeys)
+                .setParameter("ids", excludedIds)
+                .getResultList());
+    }
+
+    /**
+     * Keyset page ordered by (uploadedAt DESC, id DESC), starting strictly after the given position.
+     * Returns at most {@code limit} rows; callers ask for one extra row to know if a next page exists.
+     * Null filters are ignored; {@code attached} selects media with or without a project.
+     */
+    public List<Media> findPage(LocalDateTime afterUploadedAt, String afterId, MediaType type, String mimeType,
+                                String uploadedBy, Boolean attached, int limit) {
+        Parameters params = new Parameters();
+        List<String> clauses = new ArrayList<>();
+        if (afterUploadedAt != null) {
+            clauses.add("(m.uploadedAt < :uploadedAt OR (m.uploadedAt = :uploadedAt AND m.id < :id))");
+            params.and("uploadedAt", afterUploadedAt).and("id", afterId);
+        }
+        if (type != null) {
+            clauses.add("m.type = :type");
+            params.and("type", type);
+        }
+        if (mimeType != null) {
+            clauses.add("m.mimeType = :mimeType");
+            params.and("mimeType", mimeType);
+        }
+        if (uploadedBy != null) {
+            clauses.add("m.uploadedBy = :uploadedBy");
+            params.and("uploadedBy", uploadedBy);
+        }
+        if (attached != null) {
+            clauses.add(attached ? "m.project IS NOT NULL" : "m.project IS NULL");
+        }
+        String where = clauses.isEmpty() ? "" : " WHERE " + String.join(" AND ", clauses);
+        return find("FROM Media m" + where + " ORDER BY m.uploadedAt DESC, m.id DESC", params)
+                .range(0, limit - 1)
+                .list();
+    }
+
+    /**
+     * (project id, url) of the earliest uploaded photo of each given project.
+     */
+    public List<Object[]> findCoverUrls(Collection<String> projectIds) {
+        return getEntityManager()
+                .createQuery("SELECT m.project.id, m.url FROM Media m "
+                        + "WHERE m.project.id IN :ids AND m.type = :type AND m.uploadedAt = ("
+                        + "SELECT min(m2.uploadedAt) FROM Media m2 WHERE m2.project = m.project AND m2.type = :type)",
+                        Object[].class)
+                .setParameter("ids", projectIds)
+                .setParameter("type", MediaType.PHOTO)
+                .getResultList();
+    }
+
+    /**
+     * (type, mime type, folder, count, total size) per distinct combination.
+     */
+    @SuppressWarnings("unchecked")
+    public List<Object[]> aggregateByTypeMimeTypeAndFolder() {
+        return getEntityManager()
+                .createNativeQuery("SELECT type, mime_type, folder, count(*), coalesce(sum(size), 0) "
+                        + "FROM media GROUP BY type, mime_type, folder")
+                .getResultList();
+    }
+
+    /**
+     * (p50, p90, p99, max) of media sizes, in bytes.
+     */
+    public Object[] sizePercentiles() {
+        return (Object[]) getEntityManager()
+                .createNativeQuery("SELECT percentile_disc(0.5) WITHIN GROUP (ORDER BY size), "
+                        + "percentile_disc(0.9) WITHIN GROUP (ORDER BY size), "
+                        + "percentile_disc(0.99) WITHIN GROUP (ORDER BY size), "
+                        + "max(size) FROM media")
+                .getSingleResult();
+    }
+
+    /**
+     * Those of the given storage keys used by a media file or one of its variants.
+     */
+    public Set<String> findReferencedKeys(Collection<String> keys) {
+        Set<String> referenced = new HashSet<>(getEntityManager()
+                .createQuery("SELECT m.storageKey FROM Media m WHERE m.storageKey IN :keys", String.class)
+                .setParameter("keys", keys)
+                .getResultList());
+        referenced.addAll(getEntityManager()
+                .createQuery("SELECT v.storageKey FROM Media m JOIN m.variants v WHERE v.storageKey IN :keys", String.class)
+                .setParameter("keys", keys)
+                .getResultList());
+        return referenced;
+    }
 }
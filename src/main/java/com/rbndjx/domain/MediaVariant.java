@@ -0,0 +1,36 @@
+package com.rbndjx.domain;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+
+/**
+ * Downscaled copy of a photo, stored next to the original.
+ */
+@Embeddable
+public class MediaVariant {
+
+    @Column(name = "width", nullable = false)
+    public Integer width;
+
+    @Column(name = "height", nullable = false)
+    public Integer height;
+
+    @Column(name = "url", columnDefinition = "TEXT", nullable = false)
+    public String url;
+
+    @Column(name = "storage_key", length = 1024)
+    public String storageKey;
+
+    @Column(name = "size", nullable = false)
+    public Long size;
+
+    public MediaVariant() {}
+
+    public MediaVariant(Integer width, Integer height, String url, String storageKey, Long size) {
+        this.width = width;
+        this.height = height;
+        this.url = url;
+        this.storageKey = storageKey;
+        this.size = size;
+    }
+}
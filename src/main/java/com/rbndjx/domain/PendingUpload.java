@@ -0,0 +1,51 @@
+package com.rbndjx.domain;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Direct upload issued by the upload URL endpoint and not confirmed yet. Only keys recorded
+ * here can be confirmed, and the row is consumed by the confirmation, so a client can never
+ * make the service reference or delete an object it was not given an upload URL for.
+ */
+@Entity
+@Table(name = "pending_upload", indexes = {
+    @Index(name = "idx_pending_upload_expires_at", columnList = "expires_at")
+})
+public class PendingUpload extends PanacheEntityBase {
+
+    @Id
+    @Column(name = "object_key", length = 1024)
+    public String objectKey;
+
+    @Column(name = "mime_type", length = 100, nullable = false)
+    public String mimeType;
+
+    @Column(name = "size", nullable = false)
+    public Long size;
+
+    // Hex SHA-256 declared by the client, if any
+    @Column(name = "sha256", length = 64)
+    public String sha256;
+
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+
+    // Expiry of the upload URL
+    @Column(name = "expires_at", nullable = false)
+    public LocalDateTime expiresAt;
+
+    public PendingUpload() {
+        this.createdAt = LocalDateTime.now();
+    }
+
+    public PendingUpload(String objectKey, String mimeType, Long size, String sha256, LocalDateTime expiresAt) {
+        this();
+        this.objectKey = objectKey;
+        this.mimeType = mimeType;
+        this.size = size;
+        this.sha256 = sha256;
+        this.expiresAt = expiresAt;
+    }
+}
@@ -0,0 +1,14 @@
+package com.rbndjx.domain;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.LocalDateTime;
+
+@ApplicationScoped
+public class PendingUploadRepository implements PanacheRepositoryBase<PendingUpload, String> {
+
+    public long deleteExpiredBefore(LocalDateTime cutoff) {
+        return delete("expiresAt < ?1", cutoff);
+    }
+}
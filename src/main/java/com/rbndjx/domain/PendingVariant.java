@@ -0,0 +1,60 @@
+package com.rbndjx.domain;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Outbox row for a photo awaiting its placeholder and variants. Rows are written in the
+ * transaction that creates the media and drained by a background worker, so no image is
+ * downloaded, decoded or encoded on the upload request.
+ */
+@Entity
+@Table(name = "pending_variant", indexes = {
+    @Index(name = "idx_pending_variant_next_attempt_at", columnList = "next_attempt_at")
+})
+public class PendingVariant extends PanacheEntityBase {
+
+    @Id
+    @Column(name = "id", length = 36)
+    public String id;
+
+    @Column(name = "media_id", length = 36, nullable = false)
+    public String mediaId;
+
+    @Column(name = "storage_key", columnDefinition = "TEXT", nullable = false)
+    public String storageKey;
+
+    @Column(name = "mime_type", nullable = false, length = 100)
+    public String mimeType;
+
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+
+    @Column(name = "attempts", nullable = false)
+    public int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    public LocalDateTime nextAttemptAt;
+
+    // Lease of the worker currently processing the photo; expired leases are claimable again
+    @Column(name = "locked_until")
+    public LocalDateTime lockedUntil;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    public String lastError;
+
+    public PendingVariant() {
+        this.id = UUID.randomUUID().toString();
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    public PendingVariant(String mediaId, String storageKey, String mimeType) {
+        this();
+        this.mediaId = mediaId;
+        this.storageKey = storageKey;
+        this.mimeType = mimeType;
+    }
+}
@@ -0,0 +1,32 @@
+package com.rbndjx.domain;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@ApplicationScoped
+public class PendingVariantRepository implements PanacheRepositoryBase<PendingVariant, String> {
+
+    /**
+     * Locks up to {@code limit} due photos and leases them until {@code leaseUntil}.
+     * SKIP LOCKED lets several instances drain the outbox without waiting on each other.
+     */
+    @SuppressWarnings("unchecked")
+    public List<PendingVariant> claimDue(int limit, LocalDateTime now, LocalDateTime leaseUntil) {
+        List<PendingVariant> claimed = getEntityManager()
+                .createNativeQuery("SELECT * FROM pending_variant "
+                        + "WHERE next_attempt_at <= :now AND (locked_until IS NULL OR locked_until < :now) "
+                        + "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", PendingVariant.class)
+                .setParameter("now", now)
+                .setParameter("limit", limit)
+                .getResultList();
+        claimed.forEach(pending -> pending.lockedUntil = leaseUntil);
+        return claimed;
+    }
+
+    public long countPending() {
+        return count();
+    }
+}
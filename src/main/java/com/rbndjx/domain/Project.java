@@ -2,13 +2,20 @@ package com.rbndjx.domain;
 
 import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.DynamicUpdate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 @Entity
-@Table(name = "project")
+// Only write changed columns, so admin edits never overwrite views flushed concurrently
+@DynamicUpdate
+@Table(name = "project", indexes = {
+    @Index(name = "idx_project_created_at_id", columnList = "created_at, id"),
+    @Index(name = "idx_project_published_created_at_id", columnList = "is_published, created_at, id")
+})
 public class Project extends PanacheEntityBase {
 
     @Id
@@ -45,10 +52,10 @@ public class Project extends PanacheEntityBase {
     @Column(name = "updated_at", nullable = false)
     public LocalDateTime updatedAt;
 
-    @OneToMany(mappedBy = "project", cascade = CascadeType.ALL, orphanRemoval = true, fetch = FetchType.EAGER)
+    @OneToMany(mappedBy = "project", cascade = CascadeType.ALL, orphanRemoval = true)
     public List<Media> media = new ArrayList<>();
 
-    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE}, fetch = FetchType.EAGER)
+    @ManyToMany(cascade = {CascadeType.PERSIST, CascadeType.MERGE})
     @JoinTable(
         name = "project_techno",
         joinColumns = @JoinColumn(name = "project_id"),
@@ -100,6 +107,10 @@ public class Project extends PanacheEntityBase {
 
     public void removeTechno(Techno techno) {
         this.techStack.remove(techno);
-        techno.projects.remove(this);
+        // The inverse side is not persisted: only keep it in sync when it is loaded anyway,
+        // rather than loading every project using the technology
+        if (Hibernate.isInitialized(techno.projects)) {
+            techno.projects.remove(this);
+        }
     }
 }
@@ -1,7 +1,18 @@
 package com.rbndjx.domain;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import com.rbndjx.dto.ProjectSummaryDTO;
+import io.quarkus.panache.common.Parameters;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+
+import java.sql.PreparedStatement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class ProjectRepository implements PanacheRepositoryBase<Project, String> {
@@ -11,4 +22,149 @@ public class ProjectRepository implements PanacheRepositoryBase<Project, String>
     public Project findByName(String name) {
         return find("name", name).firstResult();
     }
+
+    /**
+     * Loads a project with its media collection initialized, in a single statement.
+     */
+    public Project findByIdWithMedia(String id) {
+        return find("SELECT p FROM Project p LEFT JOIN FETCH p.media WHERE p.id = ?1", id)
+                .singleResultOptional()
+                .orElse(null);
+    }
+
+    /**
+     * Loads a project with both collections initialized. Media and tech stack are fetched
+     * by two separate statements to avoid a cartesian product between the two bags.
+     */
+    public Project findByIdWithDetails(String id) {
+        Project project = findByIdWithMedia(id);
+        if (project != null) {
+            fetchTechStack(List.of(project.id));
+        }
+        return project;
+    }
+
+    /**
+     * Initializes media and tech stack of already loaded projects with one statement per collection,
+     * instead of one lazy select per project.
+     */
+    public void fetchDetails(List<Project> projects) {
+        if (projects.isEmpty()) {
+            return;
+        }
+        List<String> ids = projects.stream().map(p -> p.id).toList();
+        find("SELECT DISTINCT p FROM Project p LEFT JOIN FETCH p.media WHERE " + idIn(":ids"), Parameters.with("ids", idArray(ids))).list();
+        fetchTechStack(ids);
+    }
+
+    private void fetchTechStack(List<String> ids) {
+        find("SELECT DISTINCT p FROM Project p LEFT JOIN FETCH p.techStack WHERE " + idIn(":ids"), Parameters.with("ids", idArray(ids))).list();
+    }
+
+    /**
+     * All (project id, techno id, technology name) associations, without loading any entity.
+     */
+    public List<Object[]> findTechStackLinks() {
+        return getEntityManager()
+                .createQuery("SELECT p.id, t.id, t.technology FROM Project p JOIN p.techStack t", Object[].class)
+                .getResultList();
+    }
+
+    /**
+     * Keyset page ordered by (createdAt DESC, id DESC), starting strictly after the given position.
+     * Returns at most {@code limit} rows; callers ask for one extra row to know if a next page exists.
+     * When {@code ids} is not null, only those projects are considered.
+     */
+    public List<Project> findPage(LocalDateTime afterCreatedAt, String afterId,
+                                  Boolean isPublished, Boolean featured, Collection<String> ids, int limit) {
+        Parameters params = new Parameters();
+        String where = pageWhereClause(afterCreatedAt, afterId, isPublished, featured, ids, params);
+        return find("FROM Project p" + where + " ORDER BY p.createdAt DESC, p.id DESC", params)
+                .range(0, limit - 1)
+                .list();
+    }
+
+    /**
+     * Same page as {@link #findPage} as a constructor projection: never reads the description
+     * column nor any media row.
+     */
+    public List<ProjectSummaryDTO> findSummaryPage(LocalDateTime afterCreatedAt, String afterId,
+                                                   Boolean isPublished, Boolean featured,
+                                                   Collection<String> ids, int limit) {
+        Parameters params = new Parameters();
+        String where = pageWhereClause(afterCreatedAt, afterId, isPublished, featured, ids, params);
+        TypedQuery<ProjectSummaryDTO> query = getEntityManager().createQuery(
+                "SELECT new com.rbndjx.dto.ProjectSummaryDTO(p.id, p.name, p.shortDescription, p.featured, p.views, p.createdAt) "
+                        + "FROM Project p" + where + " ORDER BY p.createdAt DESC, p.id DESC",
+                ProjectSummaryDTO.class);
+        params.map().forEach(query::setParameter);
+        return query.setMaxResults(limit).getResultList();
+    }
+
+    /**
+     * (project id, technology name) pairs for the given projects.
+     */
+    public List<Object[]> findTechnologyNames(Collection<String> ids) {
+        return getEntityManager()
+                .createQuery("SELECT p.id, t.technology FROM Project p JOIN p.techStack t "
+                        + "WHERE " + idIn(":ids") + " ORDER BY t.technology", Object[].class)
+                .setParameter("ids", idArray(ids))
+                .getResultList();
+    }
+
+    private String pageWhereClause(LocalDateTime afterCreatedAt, String afterId, Boolean isPublished,
+                                   Boolean featured, Collection<String> ids, Parameters params) {
+        List<String> clauses = new ArrayList<>();
+        if (ids != null) {
+            clauses.add(idIn(":ids"));
+            params.and("ids", idArray(ids));
+        }
+        if (afterCreatedAt != null) {
+            clauses.add("(p.createdAt < :createdAt OR (p.createdAt = :createdAt AND p.id < :id))");
+            params.and("createdAt", afterCreatedAt).and("id", afterId);
+        }
+        if (isPublished != null) {
+            clauses.add("p.isPublished = :isPublished");
+            params.and("isPublished", isPublished);
+        }
+        if (featured != null) {
+            clauses.add("p.featured = :featured");
+            params.and("featured", featured);
+        }
+        return clauses.isEmpty() ? "" : " WHERE " + String.join(" AND ", clauses);
+    }
+
+    // p.id = ANY(array): the ids are bound as one array parameter, where an IN list takes one per id
+    // and the technology filter can match more projects than the 32767 parameters PostgreSQL accepts
+    private static String idIn(String parameter) {
+        return "cast(sql('? = any(?)', p.id, " + parameter + ") as Boolean)";
+    }
+
+    private static String[] idArray(Collection<String> ids) {
+        return ids.toArray(String[]::new);
+    }
+
+    /**
+     * Adds view deltas to many projects with a single UPDATE joined on unnested arrays.
+     */
+    public void incrementViews(Map<String, Long> deltas) {
+        String[] ids = new String[deltas.size()];
+        Long[] increments = new Long[deltas.size()];
+        int i = 0;
+        for (Map.Entry<String, Long> entry : deltas.entrySet()) {
+            ids[i] = entry.getKey();
+            increments[i] = entry.getValue();
+            i++;
+        }
+
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "UPDATE project p SET views = p.views + d.delta "
+                            + "FROM unnest(?, ?) AS d(id, delta) WHERE p.id = d.id")) {
+                statement.setArray(1, connection.createArrayOf("varchar", ids));
+                statement.setArray(2, connection.createArrayOf("bigint", increments));
+                statement.executeUpdate();
+            }
+        });
+    }
 }
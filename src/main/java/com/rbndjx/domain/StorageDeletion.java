@@ -0,0 +1,52 @@
+package com.rbndjx.domain;
+
+import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Outbox row for a storage object to delete. Rows are written in the transaction that removes
+ * the object's last reference and drained by a background worker, so no network call happens
+ * inside that transaction and a rollback leaves the object in place.
+ */
+@Entity
+@Table(name = "storage_deletion", indexes = {
+    @Index(name = "idx_storage_deletion_next_attempt_at", columnList = "next_attempt_at")
+})
+public class StorageDeletion extends PanacheEntityBase {
+
+    @Id
+    @Column(name = "id", length = 36)
+    public String id;
+
+    @Column(name = "object_key", columnDefinition = "TEXT", nullable = false)
+    public String objectKey;
+
+    @Column(name = "created_at", nullable = false)
+    public LocalDateTime createdAt;
+
+    @Column(name = "attempts", nullable = false)
+    public int attempts;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    public LocalDateTime nextAttemptAt;
+
+    // Lease of the worker currently deleting the object; expired leases are claimable again
+    @Column(name = "locked_until")
+    public LocalDateTime lockedUntil;
+
+    @Column(name = "last_error", columnDefinition = "TEXT")
+    public String lastError;
+
+    public StorageDeletion() {
+        this.id = UUID.randomUUID().toString();
+        this.createdAt = LocalDateTime.now();
+        this.nextAttemptAt = this.createdAt;
+    }
+
+    public StorageDeletion(String objectKey) {
+        this();
+        this.objectKey = objectKey;
+    }
+}
@@ -0,0 +1,45 @@
+package com.rbndjx.domain;
+
+import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
+import jakarta.enterprise.context.ApplicationScoped;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+@ApplicationScoped
+public class StorageDeletionRepository implements PanacheRepositoryBase<StorageDeletion, String> {
+
+    /**
+     * Locks up to {@code limit} due deletions and leases them until {@code leaseUntil}.
+     * SKIP LOCKED lets several instances drain the outbox without waiting on each other.
+     */
+    @SuppressWarnings("unchecked")
+    public List<StorageDeletion> claimDue(int limit, LocalDateTime now, LocalDateTime leaseUntil) {
+        List<StorageDeletion> claimed = getEntityManager()
+                .createNativeQuery("SELECT * FROM storage_deletion "
+                        + "WHERE next_attempt_at <= :now AND (locked_until IS NULL OR locked_until < :now) "
+                        + "ORDER BY next_attempt_at LIMIT :limit FOR UPDATE SKIP LOCKED", StorageDeletion.class)
+                .setParameter("now", now)
+                .setParameter("limit", limit)
+                .getResultList();
+        claimed.forEach(deletion -> deletion.lockedUntil = leaseUntil);
+        return claimed;
+    }
+
+    public long countPending() {
+        return count();
+    }
+
+    /**
+     * Those of the given keys already queued for deletion.
+     */
+    public Set<String> findQueuedKeys(Collection<String> keys) {
+        return new HashSet<>(getEntityManager()
+                .createQuery("SELECT d.objectKey FROM StorageDeletion d WHERE d.objectKey IN :keys", String.class)
+                .setParameter("keys", keys)
+                .getResultList());
+    }
+}
@@ -4,6 +4,7 @@ import io.quarkus.hibernate.orm.panache.PanacheEntityBase;
 import jakarta.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 @Entity
@@ -17,6 +18,12 @@ public class Techno extends PanacheEntityBase {
     @Column(name = "technology", length = 255, nullable = false)
     public String technology;
 
+    // Trimmed, lower-cased name: makes names unique case-insensitively and keys lookups.
+    // NOT NULL and unique (uk_techno_normalized_technology) once TechnoRepository.normalizeNames
+    // has merged case variants left by older versions.
+    @Column(name = "normalized_technology", length = 255)
+    public String normalizedTechnology;
+
     @Column(name = "icon_url", columnDefinition = "TEXT", nullable = false)
     public String iconUrl;
 
@@ -31,5 +38,16 @@ public class Techno extends PanacheEntityBase {
         this();
         this.technology = technology;
         this.iconUrl = iconUrl;
+        this.normalizedTechnology = normalize(technology);
+    }
+
+    @PrePersist
+    @PreUpdate
+    void updateNormalizedTechnology() {
+        normalizedTechnology = normalize(technology);
+    }
+
+    public static String normalize(String technology) {
+        return technology.trim().toLowerCase(Locale.ROOT);
     }
 }
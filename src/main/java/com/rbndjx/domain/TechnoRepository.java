@@ -2,11 +2,156 @@ package com.rbndjx.domain;
 
 import io.quarkus.hibernate.orm.panache.PanacheRepositoryBase;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.Session;
+
+import java.sql.Array;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 @ApplicationScoped
 public class TechnoRepository implements PanacheRepositoryBase<Techno, String> {
     
+    /**
+     * Case-insensitive lookup on the unique normalized name.
+     */
     public Techno findByTechnology(String technology) {
-        return find("technology", technology).firstResult();
+        return find("normalizedTechnology", Techno.normalize(technology)).firstResult();
+    }
+
+    /**
+     * (normalized name, id) of every technology.
+     */
+    public List<Object[]> findIdsByNormalizedName() {
+        return getEntityManager()
+                .createQuery("SELECT t.normalizedTechnology, t.id FROM Techno t", Object[].class)
+                .getResultList();
+    }
+
+    /**
+     * Inserts the given technologies in one statement, skipping those whose normalized name
+     * already exists, and returns the id of every given name, new or existing, keyed by
+     * normalized name. Safe against concurrent inserts of the same name: the unique constraint
+     * arbitrates and the losing insert becomes a no-op update returning the winner's id.
+     * Names must be distinct once normalized.
+     */
+    public Map<String, String> upsert(Collection<Techno> technologies) {
+        String[] ids = new String[technologies.size()];
+        String[] names = new String[technologies.size()];
+        String[] normalizedNames = new String[technologies.size()];
+        String[] iconUrls = new String[technologies.size()];
+        int i = 0;
+        for (Techno techno : technologies) {
+            ids[i] = techno.id;
+            names[i] = techno.technology;
+            normalizedNames[i] = Techno.normalize(techno.technology);
+            iconUrls[i] = techno.iconUrl;
+            i++;
+        }
+
+        Map<String, String> idsByName = new HashMap<>();
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "INSERT INTO techno (id, technology, normalized_technology, icon_url) "
+                            + "SELECT * FROM unnest(?, ?, ?, ?) "
+                            + "ON CONFLICT (normalized_technology) DO UPDATE SET normalized_technology = EXCLUDED.normalized_technology "
+                            + "RETURNING normalized_technology, id")) {
+                statement.setArray(1, connection.createArrayOf("varchar", ids));
+                statement.setArray(2, connection.createArrayOf("varchar", names));
+                statement.setArray(3, connection.createArrayOf("varchar", normalizedNames));
+                statement.setArray(4, connection.createArrayOf("text", iconUrls));
+                try (ResultSet rows = statement.executeQuery()) {
+                    while (rows.next()) {
+                        idsByName.put(rows.getString(1), rows.getString(2));
+                    }
+                }
+            }
+        });
+        return idsByName;
+    }
+
+    /**
+     * Brings a techno table from before names were normalized to the current schema: fills in
+     * missing normalized names, merges technologies whose names differ only by case or
+     * surrounding spaces into the one with the smallest id, moving their project links to it,
+     * then makes the normalized name NOT NULL and unique. Returns the number of technologies
+     * merged away. Does nothing once the column is NOT NULL and the unique index exists.
+     */
+    public int normalizeNames() {
+        long migrated = ((Number) getEntityManager().createNativeQuery(
+                "SELECT count(*) FROM information_schema.columns "
+                        + "WHERE table_schema = current_schema() AND table_name = 'techno' "
+                        + "AND column_name = 'normalized_technology' AND is_nullable = 'NO' "
+                        + "AND EXISTS (SELECT 1 FROM pg_indexes WHERE schemaname = current_schema() "
+                        + "AND indexname = 'uk_techno_normalized_technology')")
+                .getSingleResult()).longValue();
+        if (migrated > 0) {
+            return 0;
+        }
+
+        // Holds off writers, and other instances starting at the same time, until commit
+        getEntityManager().createNativeQuery("LOCK TABLE techno, project_techno IN SHARE ROW EXCLUSIVE MODE")
+                .executeUpdate();
+
+        for (Techno techno : list("normalizedTechnology IS NULL")) {
+            techno.normalizedTechnology = Techno.normalize(techno.technology);
+        }
+        flush();
+
+        // Case variants of one name, in id order: the first of each name is kept
+        List<Object[]> variants = getEntityManager().createNativeQuery(
+                "SELECT id, normalized_technology FROM techno WHERE normalized_technology IN "
+                        + "(SELECT normalized_technology FROM techno GROUP BY normalized_technology HAVING count(*) > 1) "
+                        + "ORDER BY normalized_technology, id", Object[].class)
+                .getResultList();
+        List<String> duplicateIds = new ArrayList<>();
+        List<String> keeperIds = new ArrayList<>();
+        String keeperId = null;
+        String keeperName = null;
+        for (Object[] variant : variants) {
+            if (variant[1].equals(keeperName)) {
+                duplicateIds.add((String) variant[0]);
+                keeperIds.add(keeperId);
+            } else {
+                keeperId = (String) variant[0];
+                keeperName = (String) variant[1];
+            }
+        }
+
+        getEntityManager().unwrap(Session.class).doWork(connection -> {
+            if (!duplicateIds.isEmpty()) {
+                Array duplicates = connection.createArrayOf("varchar", duplicateIds.toArray());
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "UPDATE project_techno SET techno_id = merged.keeper_id "
+                                + "FROM unnest(?, ?) AS merged(duplicate_id, keeper_id) "
+                                + "WHERE techno_id = merged.duplicate_id")) {
+                    statement.setArray(1, duplicates);
+                    statement.setArray(2, connection.createArrayOf("varchar", keeperIds.toArray()));
+                    statement.executeUpdate();
+                }
+                // Projects that used several variants now link the kept one more than once
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM project_techno a USING project_techno b "
+                                + "WHERE a.project_id = b.project_id AND a.techno_id = b.techno_id AND a.ctid > b.ctid")) {
+                    statement.executeUpdate();
+                }
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM techno WHERE id = ANY(?)")) {
+                    statement.setArray(1, duplicates);
+                    statement.executeUpdate();
+                }
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.executeUpdate("ALTER TABLE techno ALTER COLUMN normalized_technology SET NOT NULL");
+                statement.executeUpdate("CREATE UNIQUE INDEX IF NOT EXISTS uk_techno_normalized_technology "
+                        + "ON techno (normalized_technology)");
+            }
+        });
+        return duplicateIds.size();
     }
 }
@@ -0,0 +1,44 @@
+package com.rbndjx.dto;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Outcome of a batch creation, one entry per submitted item in submission order")
+public class BatchCreateResultDTO {
+
+    @Schema(description = "Number of items created")
+    public int created;
+
+    @Schema(description = "Number of items rejected")
+    public int failed;
+
+    @Schema(description = "Per-item results")
+    public List<ItemResult> items = new ArrayList<>();
+
+    public BatchCreateResultDTO() {}
+
+    public static class ItemResult {
+
+        @Schema(description = "Position of the item in the submitted list")
+        public int index;
+
+        @Schema(description = "Item status", enumeration = {"CREATED", "FAILED"})
+        public String status;
+
+        @Schema(description = "ID of the created resource")
+        public String id;
+
+        @Schema(description = "Reasons why the item was rejected")
+        public List<String> errors = new ArrayList<>();
+
+        public ItemResult() {}
+
+        public ItemResult(int index, String status, String id, List<String> errors) {
+            this.index = index;
+            this.status = status;
+            this.id = id;
+            this.errors = errors;
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.rbndjx.dto;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+
+@Schema(description = "Confirmation of a completed direct-to-storage upload")
+public class ConfirmUploadDTO {
+
+    @NotBlank
+    @Schema(description = "Storage key returned by the upload URL request", required = true)
+    public String key;
+
+    @NotBlank
+    @Schema(description = "Original file name", required = true)
+    public String originalName;
+
+    @Schema(description = "Alternative text for the media")
+    public String alt;
+
+    @Schema(description = "User who uploaded the file")
+    public String uploadedBy;
+
+    public ConfirmUploadDTO() {}
+}
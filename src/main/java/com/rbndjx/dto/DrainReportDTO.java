@@ -0,0 +1,17 @@
+package com.rbndjx.dto;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+@Schema(description = "Result of draining a background job outbox")
+public class DrainReportDTO {
+
+    @Schema(description = "Number of queued rows processed, including those scheduled for a retry")
+    public int processed;
+
+    public DrainReportDTO() {
+    }
+
+    public DrainReportDTO(int processed) {
+        this.processed = processed;
+    }
+}
@@ -4,6 +4,8 @@ import com.rbndjx.domain.MediaType;
 import org.eclipse.microprofile.openapi.annotations.media.Schema;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
 
 @Schema(description = "Media data transfer object")
 public class MediaDTO {
@@ -38,6 +40,12 @@ public class MediaDTO {
     @Schema(description = "User who uploaded the file")
     public String uploadedBy;
 
+    @Schema(description = "BlurHash placeholder of a photo, to render while it loads (null until computed)")
+    public String placeholder;
+
+    @Schema(description = "Downscaled versions of a photo, narrowest first (empty until generated)")
+    public List<MediaVariantDTO> variants = new ArrayList<>();
+
     public MediaDTO() {}
 
     public MediaDTO(String id, MediaType type, String url, String alt, String originalName, 
@@ -0,0 +1,28 @@
+package com.rbndjx.dto;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+@Schema(description = "Downscaled version of a photo, usable as a srcset candidate")
+public class MediaVariantDTO {
+
+    @Schema(description = "Variant URL")
+    public String url;
+
+    @Schema(description = "Width in pixels (the srcset w descriptor)")
+    public Integer width;
+
+    @Schema(description = "Height in pixels")
+    public Integer height;
+
+    @Schema(description = "File size in bytes")
+    public Long size;
+
+    public MediaVariantDTO() {}
+
+    public MediaVariantDTO(String url, Integer width, Integer height, Long size) {
+        this.url = url;
+        this.width = width;
+        this.height = height;
+        this.size = size;
+    }
+}
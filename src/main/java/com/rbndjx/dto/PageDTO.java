@@ -0,0 +1,22 @@
+package com.rbndjx.dto;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Page of results for cursor-based pagination")
+public class PageDTO<T> {
+
+    @Schema(description = "Items of the current page")
+    public List<T> items = new ArrayList<>();
+
+    @Schema(description = "Opaque cursor to pass as 'cursor' to fetch the next page, null on the last page")
+    public String nextCursor;
+
+    public PageDTO() {}
+
+    public PageDTO(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+}
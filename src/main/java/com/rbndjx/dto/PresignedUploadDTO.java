@@ -0,0 +1,46 @@
+package com.rbndjx.dto;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@Schema(description = "Presigned upload: PUT the file bytes to uploadUrl with the given headers, then confirm the upload")
+public class PresignedUploadDTO {
+
+    @Schema(description = "Storage key of the object, to pass to the confirm endpoint")
+    public String key;
+
+    @Schema(description = "HTTP method to use", example = "PUT")
+    public String method;
+
+    @Schema(description = "Presigned upload URL")
+    public String uploadUrl;
+
+    @Schema(description = "Headers that must be sent with the upload request")
+    public Map<String, List<String>> headers;
+
+    @Schema(description = "Instant after which the upload URL is no longer valid")
+    public Instant expiresAt;
+
+    @Schema(description = "Media created for a file identical to one already stored; when set, there is nothing to upload or confirm")
+    public MediaDTO existingMedia;
+
+    public PresignedUploadDTO() {}
+
+    public PresignedUploadDTO(String key, String method, String uploadUrl,
+                              Map<String, List<String>> headers, Instant expiresAt) {
+        this.key = key;
+        this.method = method;
+        this.uploadUrl = uploadUrl;
+        this.headers = headers;
+        this.expiresAt = expiresAt;
+    }
+
+    public static PresignedUploadDTO existing(MediaDTO media) {
+        PresignedUploadDTO dto = new PresignedUploadDTO();
+        dto.existingMedia = media;
+        return dto;
+    }
+}
@@ -0,0 +1,46 @@
+package com.rbndjx.dto;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Lightweight project representation for grids and lists")
+public class ProjectSummaryDTO {
+
+    @Schema(description = "Unique project identifier")
+    public String id;
+
+    @Schema(description = "Project name")
+    public String name;
+
+    @Schema(description = "Short project description")
+    public String shortDescription;
+
+    @Schema(description = "Indicates if the project is featured")
+    public Boolean featured;
+
+    @Schema(description = "Number of project views")
+    public Integer views;
+
+    @Schema(description = "Project creation date")
+    public LocalDateTime createdAt;
+
+    @Schema(description = "URL of the first photo of the project, if any")
+    public String coverImageUrl;
+
+    @Schema(description = "Names of the technologies used in the project")
+    public List<String> technologies = new ArrayList<>();
+
+    public ProjectSummaryDTO() {}
+
+    public ProjectSummaryDTO(String id, String name, String shortDescription, Boolean featured,
+                             Integer views, LocalDateTime createdAt) {
+        this.id = id;
+        this.name = name;
+        this.shortDescription = shortDescription;
+        this.featured = featured;
+        this.views = views;
+        this.createdAt = createdAt;
+    }
+}
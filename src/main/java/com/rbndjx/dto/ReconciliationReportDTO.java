@@ -0,0 +1,46 @@
+package com.rbndjx.dto;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Result of a reconciliation run between the storage bucket and the media table")
+public class ReconciliationReportDTO {
+
+    @Schema(description = "Run mode", enumeration = {"dry-run", "enforce"})
+    public String mode;
+
+    @Schema(description = "Objects and media newer than this instant were ignored")
+    public Instant cutoff;
+
+    @Schema(description = "Number of storage objects listed")
+    public long scannedObjects;
+
+    @Schema(description = "Number of storage objects referenced by no media")
+    public long orphanObjects;
+
+    @Schema(description = "Total size of the orphan objects in bytes")
+    public long orphanBytes;
+
+    @Schema(description = "Number of media attached to no project")
+    public long unattachedMedia;
+
+    @Schema(description = "Number of orphan objects queued for deletion (enforce mode only)")
+    public long deletedObjects;
+
+    @Schema(description = "Number of unattached media deleted (enforce mode with unattached media cleanup only)")
+    public long deletedMedia;
+
+    @Schema(description = "First orphan object keys found")
+    public List<String> orphanObjectSample = new ArrayList<>();
+
+    @Schema(description = "First unattached media IDs found")
+    public List<String> unattachedMediaSample = new ArrayList<>();
+
+    @Schema(description = "Run duration in milliseconds")
+    public long durationMs;
+
+    public ReconciliationReportDTO() {}
+}
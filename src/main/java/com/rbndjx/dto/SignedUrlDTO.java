@@ -0,0 +1,22 @@
+package com.rbndjx.dto;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+
+import java.time.Instant;
+
+@Schema(description = "Presigned URL giving temporary read access to a media file")
+public class SignedUrlDTO {
+
+    @Schema(description = "Presigned URL")
+    public String signedUrl;
+
+    @Schema(description = "Instant after which the URL is no longer valid")
+    public Instant expiresAt;
+
+    public SignedUrlDTO() {}
+
+    public SignedUrlDTO(String signedUrl, Instant expiresAt) {
+        this.signedUrl = signedUrl;
+        this.expiresAt = expiresAt;
+    }
+}
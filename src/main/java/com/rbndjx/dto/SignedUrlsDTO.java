@@ -0,0 +1,17 @@
+package com.rbndjx.dto;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+@Schema(description = "Signed URLs of several media files")
+public class SignedUrlsDTO {
+
+    @Schema(description = "Signed URL per media ID")
+    public Map<String, SignedUrlDTO> urls = new LinkedHashMap<>();
+
+    @Schema(description = "Error message per media ID that could not be signed")
+    public Map<String, String> errors = new LinkedHashMap<>();
+
+    public SignedUrlsDTO() {}
+}
@@ -0,0 +1,24 @@
+package com.rbndjx.dto;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+@Schema(description = "Request for signed URLs of several media files")
+public class SignedUrlsRequestDTO {
+
+    @NotEmpty
+    @Size(max = 200)
+    @Schema(description = "IDs of the media to sign", required = true,
+            example = "[\"123e4567-e89b-12d3-a456-426614174000\"]")
+    public List<String> ids = new ArrayList<>();
+
+    @Positive
+    @Schema(description = "Requested URL lifetime in seconds, rounded up to 5 minutes, 15 minutes, 1 hour, 6 hours, 1 day or 7 days (the maximum)", defaultValue = "3600")
+    public int expiresIn = 3600;
+
+    public SignedUrlsRequestDTO() {}
+}
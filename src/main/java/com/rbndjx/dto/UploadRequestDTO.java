@@ -0,0 +1,39 @@
+package com.rbndjx.dto;
+
+import org.eclipse.microprofile.openapi.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+
+@Schema(description = "Request for a direct-to-storage upload URL")
+public class UploadRequestDTO {
+
+    @NotBlank
+    @Schema(description = "Original file name", required = true, example = "screenshot.png")
+    public String fileName;
+
+    @NotBlank
+    @Schema(description = "MIME type of the file", required = true, example = "image/png")
+    public String mimeType;
+
+    @NotNull
+    @Positive
+    @Schema(description = "Exact file size in bytes", required = true)
+    public Long size;
+
+    @Schema(description = "Target folder, derived from the MIME type when absent")
+    public String folder;
+
+    @Pattern(regexp = "[0-9a-fA-F]{64}")
+    @Schema(description = "Hex SHA-256 of the file. When given and an identical file is already stored, a media sharing it is created instead of an upload URL; otherwise S3 verifies the uploaded bytes against it")
+    public String sha256;
+
+    @Schema(description = "Alternative text, for the media created when the file is already stored")
+    public String alt;
+
+    @Schema(description = "User who uploaded the file, for the media created when the file is already stored")
+    public String uploadedBy;
+
+    public UploadRequestDTO() {}
+}
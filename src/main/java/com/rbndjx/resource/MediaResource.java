@@ -1,13 +1,25 @@
 package com.rbndjx.resource;
 
+import com.rbndjx.dto.ConfirmUploadDTO;
 import com.rbndjx.dto.MediaDTO;
+import com.rbndjx.dto.PageDTO;
+import com.rbndjx.dto.PresignedUploadDTO;
+import com.rbndjx.dto.SignedUrlDTO;
+import com.rbndjx.dto.SignedUrlsDTO;
+import com.rbndjx.dto.SignedUrlsRequestDTO;
+import com.rbndjx.dto.UploadRequestDTO;
+import com.rbndjx.service.MediaContentService;
 import com.rbndjx.service.MediaService;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
+import jakarta.validation.Valid;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.parameters.RequestBody;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.security.SecurityRequirement;
@@ -28,11 +40,24 @@ public class MediaResource {
     @Inject
     MediaService mediaService;
 
+    @Inject
+    MediaContentService mediaContentService;
+
     @GET
-    @Operation(summary = "Get all media files")
-    @APIResponse(responseCode = "200", description = "List of all media")
-    public List<MediaDTO> getAllMedia() {
-        return mediaService.getAllMedia();
+    @Operation(
+            summary = "Get media files",
+            description = "Cursor-paginated media library, most recently uploaded first. Pass the returned nextCursor to get the following page."
+    )
+    @APIResponse(responseCode = "200", description = "Page of media")
+    @APIResponse(responseCode = "400", description = "Invalid cursor")
+    public PageDTO<MediaDTO> getAllMedia(
+            @Parameter(description = "Cursor returned by the previous page") @QueryParam("cursor") String cursor,
+            @Parameter(description = "Page size (max 100)") @QueryParam("limit") @DefaultValue("20") int limit,
+            @Parameter(description = "Filter on media type") @QueryParam("type") com.rbndjx.domain.MediaType type,
+            @Parameter(description = "Filter on MIME type (e.g. image/png)") @QueryParam("mimeType") String mimeType,
+            @Parameter(description = "Filter on uploader") @QueryParam("uploadedBy") String uploadedBy,
+            @Parameter(description = "true for media attached to a project, false for unattached media") @QueryParam("attached") Boolean attached) {
+        return mediaService.listPage(cursor, limit, type, mimeType, uploadedBy, attached);
     }
 
     @GET
@@ -44,6 +69,26 @@ public class MediaResource {
         return mediaService.getById(id);
     }
 
+    @GET
+    @Path("/{id}/content")
+    @Produces(MediaType.WILDCARD)
+    @Operation(
+            summary = "Get media file content",
+            description = "Serves the file through a local disk cache, with Range and conditional request support. Only available when the content cache is enabled."
+    )
+    @APIResponse(responseCode = "200", description = "File content")
+    @APIResponse(responseCode = "206", description = "Requested byte range")
+    @APIResponse(responseCode = "304", description = "Not modified since the given ETag or date")
+    @APIResponse(responseCode = "404", description = "Media not found or content cache disabled")
+    @APIResponse(responseCode = "416", description = "Requested range not satisfiable")
+    public Response getMediaContent(
+            @PathParam("id") String id,
+            @HeaderParam("Range") String range,
+            @HeaderParam("If-Range") List<String> ifRange,
+            @Context Request request) {
+        return mediaContentService.respond(id, range, ifRange, request);
+    }
+
     @POST
     @Path("/upload")
     @RolesAllowed("admin")
@@ -51,7 +96,7 @@ public class MediaResource {
     @Consumes(MediaType.MULTIPART_FORM_DATA)
     @Operation(
             summary = "Upload a media file",
-            description = "Upload a file to S3 and create a media entry. Returns the media ID to use when creating projects. Requires authentication."
+            description = "Upload a file to S3 and create a media entry. Returns the media ID to use when creating projects. A file identical to one already stored is not stored twice: the new media shares it. Requires authentication."
     )
     @APIResponse(responseCode = "201", description = "Media uploaded successfully")
     @APIResponse(responseCode = "400", description = "Invalid file or file too large")
@@ -76,6 +121,39 @@ public class MediaResource {
         }
     }
 
+    @POST
+    @Path("/uploads")
+    @RolesAllowed("admin")
+    @SecurityRequirement(name = "bearer-auth")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Request a direct upload URL",
+            description = "Returns a presigned URL to PUT the file directly to S3, bound to the declared MIME type and size. Call POST /media/uploads/confirm once the upload is done. If a sha256 is given and the same file is already stored, a media sharing it is created and returned as existingMedia, and nothing needs to be uploaded. Requires authentication."
+    )
+    @APIResponse(responseCode = "200", description = "Upload URL issued")
+    @APIResponse(responseCode = "400", description = "Invalid file type or file too large")
+    @APIResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    public PresignedUploadDTO requestUpload(@Valid UploadRequestDTO request) {
+        return mediaService.requestUpload(request);
+    }
+
+    @POST
+    @Path("/uploads/confirm")
+    @RolesAllowed("admin")
+    @SecurityRequirement(name = "bearer-auth")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Confirm a direct upload",
+            description = "Checks the uploaded object in S3 against the upload requested for its key and creates its media entry. Must be called within twice the upload URL lifetime of the request. Returns the media ID to use when creating projects. Requires authentication."
+    )
+    @APIResponse(responseCode = "201", description = "Media created")
+    @APIResponse(responseCode = "400", description = "No upload requested for the key, upload expired or being deleted, object missing, already confirmed, or not allowed")
+    @APIResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    public Response confirmUpload(@Valid ConfirmUploadDTO confirmation) {
+        MediaDTO media = mediaService.confirmUpload(confirmation);
+        return Response.status(Response.Status.CREATED).entity(media).build();
+    }
+
     @DELETE
     @Path("/{id}")
     @RolesAllowed("admin")
@@ -91,14 +169,30 @@ public class MediaResource {
 
     @POST
     @Path("/{id}/signed-url")
-    @Operation(summary = "Generate a signed URL for media access")
+    @Operation(
+            summary = "Generate a signed URL for media access",
+            description = "The lifetime is rounded up to 5 minutes, 15 minutes, 1 hour, 6 hours, 1 day or 7 days (the maximum). A previously issued URL is returned while at least half of that lifetime remains; check expiresAt for its actual expiry."
+    )
     @APIResponse(responseCode = "200", description = "Signed URL generated successfully")
+    @APIResponse(responseCode = "400", description = "Invalid expiration")
     @APIResponse(responseCode = "404", description = "Media not found")
-    public Response generateSignedUrl(
+    public SignedUrlDTO generateSignedUrl(
             @PathParam("id") String id,
             @QueryParam("expiresIn") @DefaultValue("3600") int expiresInSeconds) {
-        String signedUrl = mediaService.generateSignedUrl(id, expiresInSeconds);
-        return Response.ok().entity(new SignedUrlResponse(signedUrl)).build();
+        return mediaService.generateSignedUrl(id, expiresInSeconds);
+    }
+
+    @POST
+    @Path("/signed-urls")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Operation(
+            summary = "Generate signed URLs for several media files",
+            description = "Signs up to 200 media in one call. Media that cannot be signed are reported in errors instead of failing the request."
+    )
+    @APIResponse(responseCode = "200", description = "Signed URLs and per-media errors")
+    @APIResponse(responseCode = "400", description = "Empty or oversized ID list, or invalid expiration")
+    public SignedUrlsDTO generateSignedUrls(@Valid SignedUrlsRequestDTO request) {
+        return mediaService.generateSignedUrls(request.ids, request.expiresIn);
     }
 
     @GET
@@ -108,12 +202,4 @@ public class MediaResource {
     public MediaService.MediaStats getMediaStats() {
         return mediaService.getMediaStats();
     }
-
-    public static class SignedUrlResponse {
-        public String signedUrl;
-
-        public SignedUrlResponse(String signedUrl) {
-            this.signedUrl = signedUrl;
-        }
-    }
 }
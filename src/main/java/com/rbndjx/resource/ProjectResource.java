@@ -1,10 +1,14 @@
 package com.rbndjx.resource;
 
 import com.rbndjx.dto.*;
+import com.rbndjx.service.JsonResponseCache;
+import com.rbndjx.service.PageCursor;
 import com.rbndjx.service.ProjectService;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.openapi.annotations.Operation;
@@ -24,11 +28,68 @@ public class ProjectResource {
     @Inject
     ProjectService projectService;
 
+    @Inject
+    JsonResponseCache jsonResponseCache;
+
     @GET
-    @Operation(summary = "Get all projects", description = "List of all projects retrieved successfully")
-    @APIResponse(responseCode = "200", description = "List of all projects")
-    public List<ProjectDTO> getAllProjects() {
-        return projectService.listAll();
+    @Operation(
+            summary = "Get projects",
+            description = "Cursor-paginated list of projects, newest first. Pass the returned nextCursor to get the following page. Only published projects are listed unless published=false is given. Published pages come from the in-memory read model, pre-serialized with a strong ETag: send it in If-None-Match to get 304. Their view counts are those of the last flush. Pages with published=false are read from the database, with no ETag."
+    )
+    @APIResponse(responseCode = "200", description = "Page of projects")
+    @APIResponse(responseCode = "304", description = "Published page not modified since the given ETag")
+    @APIResponse(responseCode = "400", description = "Invalid cursor")
+    public Response getAllProjects(
+            @Parameter(description = "Cursor returned by the previous page") @QueryParam("cursor") String cursor,
+            @Parameter(description = "Page size (max 100)") @QueryParam("limit") @DefaultValue("20") int limit,
+            @Parameter(description = "true for published projects, false for unpublished ones") @QueryParam("published") @DefaultValue("true") boolean published,
+            @Parameter(description = "Filter on featured flag") @QueryParam("featured") Boolean featured,
+            @Parameter(description = "Filter on technology name, repeatable (e.g. tech=java&tech=quarkus)") @QueryParam("tech") List<String> tech,
+            @Parameter(description = "Whether projects must use all the given technologies or any of them") @QueryParam("techMatch") @DefaultValue("all") String techMatch,
+            @Context HttpHeaders headers) {
+        boolean matchAll = matchAll(techMatch);
+
+        if (!published) {
+            return Response.ok(projectService.listPage(cursor, limit, false, featured, tech, matchAll)).build();
+        }
+
+        // Published pages come from the read model: serve them pre-serialized, with ETag support
+        String key = "projects?cursor=" + cursor + "&limit=" + PageCursor.clampPageSize(limit) + "&featured=" + featured
+                + "&tech=" + tech + "&matchAll=" + matchAll;
+        return jsonResponseCache.respond(key, headers,
+                () -> projectService.listPage(cursor, limit, true, featured, tech, matchAll));
+    }
+
+    @GET
+    @Path("/summaries")
+    @Operation(
+            summary = "Get project summaries",
+            description = "Same listing, filters and cursor as GET /projects, with only the fields a project grid needs: no description and a single cover image instead of all media."
+    )
+    @APIResponse(responseCode = "200", description = "Page of project summaries")
+    @APIResponse(responseCode = "400", description = "Invalid cursor")
+    public PageDTO<ProjectSummaryDTO> getProjectSummaries(
+            @Parameter(description = "Cursor returned by the previous page") @QueryParam("cursor") String cursor,
+            @Parameter(description = "Page size (max 100)") @QueryParam("limit") @DefaultValue("20") int limit,
+            @Parameter(description = "true for published projects, false for unpublished ones") @QueryParam("published") @DefaultValue("true") boolean published,
+            @Parameter(description = "Filter on featured flag") @QueryParam("featured") Boolean featured,
+            @Parameter(description = "Filter on technology name, repeatable") @QueryParam("tech") List<String> tech,
+            @Parameter(description = "Whether projects must use all the given technologies or any of them") @QueryParam("techMatch") @DefaultValue("all") String techMatch) {
+        return projectService.listSummaryPage(cursor, limit, published, featured, tech, matchAll(techMatch));
+    }
+
+    @GET
+    @Path("/search")
+    @Operation(
+            summary = "Search published projects",
+            description = "Full-text search over name, short description and description, best matches first. Words match as prefixes."
+    )
+    @APIResponse(responseCode = "200", description = "Matching projects")
+    @APIResponse(responseCode = "400", description = "Empty query")
+    public List<ProjectDTO> searchProjects(
+            @Parameter(description = "Search terms") @QueryParam("q") String query,
+            @Parameter(description = "Maximum number of results (max 100)") @QueryParam("limit") @DefaultValue("20") int limit) {
+        return projectService.search(query, limit);
     }
 
     @GET
@@ -41,6 +102,20 @@ public class ProjectResource {
         return projectService.getById(id);
     }
 
+    @POST
+    @Path("/{id}/views")
+    @Operation(
+            summary = "Record a project view",
+            description = "Counts one view of the project. Views are buffered and persisted periodically."
+    )
+    @APIResponse(responseCode = "202", description = "View recorded")
+    @APIResponse(responseCode = "404", description = "Project not found")
+    public Response recordView(
+            @Parameter(description = "Project ID") @PathParam("id") String id) {
+        projectService.recordView(id);
+        return Response.accepted().build();
+    }
+
     @POST
     @RolesAllowed("admin")
     @SecurityRequirement(name = "bearer-auth")
@@ -56,6 +131,21 @@ public class ProjectResource {
         return Response.status(Response.Status.CREATED).entity(created).build();
     }
 
+    @POST
+    @Path("/batch")
+    @RolesAllowed("admin")
+    @SecurityRequirement(name = "bearer-auth")
+    @Operation(
+            summary = "Create many projects at once",
+            description = "Create up to 500 projects in one transaction. Invalid items are reported individually and skipped; the others are created. Requires authentication."
+    )
+    @APIResponse(responseCode = "200", description = "Per-item creation results")
+    @APIResponse(responseCode = "400", description = "Empty or oversized batch")
+    @APIResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    public BatchCreateResultDTO createProjects(List<CreateProjectDTO> projects) {
+        return projectService.createBatch(projects);
+    }
+
     @DELETE
     @Path("/{id}")
     @RolesAllowed("admin")
@@ -130,4 +220,12 @@ public class ProjectResource {
             @PathParam("technoId") String technoId) {
         return projectService.removeTechnology(projectId, technoId);
     }
+
+    private static boolean matchAll(String techMatch) {
+        return switch (techMatch) {
+            case "all" -> true;
+            case "any" -> false;
+            default -> throw new BadRequestException("techMatch must be 'all' or 'any'");
+        };
+    }
 }
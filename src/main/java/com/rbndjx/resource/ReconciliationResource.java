@@ -0,0 +1,38 @@
+package com.rbndjx.resource;
+
+import com.rbndjx.dto.ReconciliationReportDTO;
+import com.rbndjx.service.ReconciliationService;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.security.SecurityRequirement;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+@Path("/admin/reconciliation")
+@Tag(name = "Administration", description = "Maintenance endpoints")
+@Produces(MediaType.APPLICATION_JSON)
+public class ReconciliationResource {
+
+    @Inject
+    ReconciliationService reconciliationService;
+
+    @POST
+    @RolesAllowed("admin")
+    @SecurityRequirement(name = "bearer-auth")
+    @Operation(
+            summary = "Reconcile the storage bucket with the media table",
+            description = "Finds storage objects referenced by no media and media attached to no project, older than the grace period. In dry-run mode they are only reported; in enforce mode orphan objects are queued for deletion. Runs on its own on RECONCILIATION_CRON on long-running instances; on Lambda, call it from a schedule. Requires authentication."
+    )
+    @APIResponse(responseCode = "200", description = "Reconciliation report")
+    @APIResponse(responseCode = "400", description = "Invalid mode")
+    @APIResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    @APIResponse(responseCode = "409", description = "A reconciliation is already running")
+    public ReconciliationReportDTO reconcile(
+            @Parameter(description = "dry-run or enforce") @QueryParam("mode") @DefaultValue(ReconciliationService.DRY_RUN) String mode) {
+        return reconciliationService.run(mode);
+    }
+}
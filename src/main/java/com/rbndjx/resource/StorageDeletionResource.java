@@ -0,0 +1,35 @@
+package com.rbndjx.resource;
+
+import com.rbndjx.dto.DrainReportDTO;
+import com.rbndjx.service.StorageDeletionService;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.security.SecurityRequirement;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+@Path("/admin/storage-deletions")
+@Tag(name = "Administration", description = "Maintenance endpoints")
+@Produces(MediaType.APPLICATION_JSON)
+public class StorageDeletionResource {
+
+    @Inject
+    StorageDeletionService storageDeletionService;
+
+    @POST
+    @Path("/drain")
+    @RolesAllowed("admin")
+    @SecurityRequirement(name = "bearer-auth")
+    @Operation(
+            summary = "Delete the storage objects queued for deletion",
+            description = "Deletes every due object queued by media deletions, duplicate uploads and reconciliation, and returns once done. Runs on its own every STORAGE_DELETION_INTERVAL on long-running instances; on Lambda, call it from a schedule. Requires authentication."
+    )
+    @APIResponse(responseCode = "200", description = "Drain report")
+    @APIResponse(responseCode = "401", description = "Unauthorized - Invalid or missing JWT token")
+    public DrainReportDTO drain() {
+        return new DrainReportDTO(storageDeletionService.drain());
+    }
+}
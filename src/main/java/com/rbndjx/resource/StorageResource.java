@@ -0,0 +1,31 @@
+package com.rbndjx.resource;
+
+import com.rbndjx.service.StorageService;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+@Path("/storage")
+@Tag(name = "Storage", description = "Stored files of the local and in-memory storage backends")
+public class StorageResource {
+
+    @Inject
+    StorageService storageService;
+
+    @GET
+    @Path("/{key: .+}")
+    @Produces(MediaType.WILDCARD)
+    @Operation(
+            summary = "Get a stored file",
+            description = "Target of media URLs when the local or in-memory storage backend is used. Not available with S3."
+    )
+    @APIResponse(responseCode = "200", description = "File content")
+    @APIResponse(responseCode = "404", description = "No such file, or files are served by S3")
+    public Response getObject(@PathParam("key") String key) {
+        return storageService.respond(key);
+    }
+}
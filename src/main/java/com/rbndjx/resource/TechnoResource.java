@@ -2,10 +2,13 @@ package com.rbndjx.resource;
 
 import com.rbndjx.dto.SimpleTechnoDTO;
 import com.rbndjx.dto.TechnoDTO;
+import com.rbndjx.service.JsonResponseCache;
 import com.rbndjx.service.TechnoService;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.openapi.annotations.Operation;
@@ -13,8 +16,6 @@ import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.security.SecurityRequirement;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 
-import java.util.List;
-
 @Path("/technologies")
 @Tag(name = "Technologies", description = "Technology management endpoints")
 @Produces(MediaType.APPLICATION_JSON)
@@ -24,11 +25,18 @@ public class TechnoResource {
     @Inject
     TechnoService technoService;
 
+    @Inject
+    JsonResponseCache jsonResponseCache;
+
     @GET
-    @Operation(summary = "Get all technologies")
+    @Operation(
+            summary = "Get all technologies",
+            description = "Served from the in-memory read model, pre-serialized with a strong ETag: send it in If-None-Match to get 304."
+    )
     @APIResponse(responseCode = "200", description = "List of all technologies")
-    public List<TechnoDTO> getAllTechnologies() {
-        return technoService.listAll();
+    @APIResponse(responseCode = "304", description = "Not modified since the given ETag")
+    public Response getAllTechnologies(@Context HttpHeaders headers) {
+        return jsonResponseCache.respond("technologies", headers, technoService::listAll);
     }
 
     @GET
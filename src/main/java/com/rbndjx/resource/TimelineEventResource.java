@@ -2,13 +2,17 @@ package com.rbndjx.resource;
 
 import com.rbndjx.domain.TimelineEventType;
 import com.rbndjx.dto.TimelineEventDTO;
+import com.rbndjx.service.JsonResponseCache;
 import com.rbndjx.service.TimelineEventService;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.openapi.annotations.Operation;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.responses.APIResponse;
 import org.eclipse.microprofile.openapi.annotations.security.SecurityRequirement;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
@@ -24,19 +28,44 @@ public class TimelineEventResource {
     @Inject
     TimelineEventService timelineEventService;
 
+    @Inject
+    JsonResponseCache jsonResponseCache;
+
     @GET
-    @Operation(summary = "Get all timeline events ordered by timestamp")
+    @Operation(
+            summary = "Get all timeline events ordered by timestamp",
+            description = "Served from the in-memory read model, pre-serialized with a strong ETag: send it in If-None-Match to get 304."
+    )
     @APIResponse(responseCode = "200", description = "List of all timeline events")
-    public List<TimelineEventDTO> getAllEvents() {
-        return timelineEventService.listAll();
+    @APIResponse(responseCode = "304", description = "Not modified since the given ETag")
+    public Response getAllEvents(@Context HttpHeaders headers) {
+        return jsonResponseCache.respond("timeline-events", headers, timelineEventService::listAll);
+    }
+
+    @GET
+    @Path("/search")
+    @Operation(
+            summary = "Search timeline events",
+            description = "Full-text search over title and description, best matches first. Words match as prefixes."
+    )
+    @APIResponse(responseCode = "200", description = "Matching timeline events")
+    @APIResponse(responseCode = "400", description = "Empty query")
+    public List<TimelineEventDTO> searchEvents(
+            @Parameter(description = "Search terms") @QueryParam("q") String query,
+            @Parameter(description = "Maximum number of results (max 100)") @QueryParam("limit") @DefaultValue("20") int limit) {
+        return timelineEventService.search(query, limit);
     }
 
     @GET
     @Path("/type/{type}")
-    @Operation(summary = "Get timeline events by type")
+    @Operation(
+            summary = "Get timeline events by type",
+            description = "Served from the in-memory read model, pre-serialized with a strong ETag: send it in If-None-Match to get 304."
+    )
     @APIResponse(responseCode = "200", description = "List of timeline events by type")
-    public List<TimelineEventDTO> getEventsByType(@PathParam("type") TimelineEventType type) {
-        return timelineEventService.listByType(type);
+    @APIResponse(responseCode = "304", description = "Not modified since the given ETag")
+    public Response getEventsByType(@PathParam("type") TimelineEventType type, @Context HttpHeaders headers) {
+        return jsonResponseCache.respond("timeline-events?type=" + type, headers, () -> timelineEventService.listByType(type));
     }
 
     @GET
@@ -0,0 +1,111 @@
+package com.rbndjx.service;
+
+import java.awt.image.BufferedImage;
+
+/**
+ * Encoder for BlurHash (https://blurha.sh), a compact string the frontend decodes into a blurred
+ * placeholder while the real image loads. The image is described by a few DCT components, so
+ * callers should pass a small, already downscaled image: the cost is proportional to its pixel count.
+ */
+public final class BlurHash {
+
+    private static final String BASE83 =
+            "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz#$%*+,-.:;=?@[]^_{|}~";
+
+    private BlurHash() {
+    }
+
+    public static String encode(BufferedImage image, int xComponents, int yComponents) {
+        if (xComponents < 1 || xComponents > 9 || yComponents < 1 || yComponents > 9) {
+            throw new IllegalArgumentException("Components must be between 1 and 9");
+        }
+        int width = image.getWidth();
+        int height = image.getHeight();
+        int[] pixels = image.getRGB(0, 0, width, height, null, 0, width);
+
+        // Linearize once instead of once per component
+        float[] red = new float[pixels.length];
+        float[] green = new float[pixels.length];
+        float[] blue = new float[pixels.length];
+        for (int i = 0; i < pixels.length; i++) {
+            red[i] = srgbToLinear((pixels[i] >> 16) & 0xFF);
+            green[i] = srgbToLinear((pixels[i] >> 8) & 0xFF);
+            blue[i] = srgbToLinear(pixels[i] & 0xFF);
+        }
+
+        double[][] factors = new double[xComponents * yComponents][];
+        for (int j = 0; j < yComponents; j++) {
+            for (int i = 0; i < xComponents; i++) {
+                double normalisation = i == 0 && j == 0 ? 1 : 2;
+                double r = 0;
+                double g = 0;
+                double b = 0;
+                for (int y = 0; y < height; y++) {
+                    double basisY = normalisation * Math.cos(Math.PI * j * y / height);
+                    for (int x = 0; x < width; x++) {
+                        double basis = basisY * Math.cos(Math.PI * i * x / width);
+                        int p = y * width + x;
+                        r += basis * red[p];
+                        g += basis * green[p];
+                        b += basis * blue[p];
+                    }
+                }
+                double scale = 1.0 / (width * height);
+                factors[j * xComponents + i] = new double[]{r * scale, g * scale, b * scale};
+            }
+        }
+
+        StringBuilder hash = new StringBuilder();
+        encode83(hash, (xComponents - 1) + (yComponents - 1) * 9, 1);
+
+        double maximumValue;
+        if (factors.length > 1) {
+            double actualMaximum = 0;
+            for (int k = 1; k < factors.length; k++) {
+                for (double value : factors[k]) {
+                    actualMaximum = Math.max(actualMaximum, Math.abs(value));
+                }
+            }
+            int quantisedMaximum = (int) Math.max(0, Math.min(82, Math.floor(actualMaximum * 166 - 0.5)));
+            maximumValue = (quantisedMaximum + 1) / 166.0;
+            encode83(hash, quantisedMaximum, 1);
+        } else {
+            maximumValue = 1;
+            encode83(hash, 0, 1);
+        }
+
+        double[] dc = factors[0];
+        encode83(hash, (linearToSrgb(dc[0]) << 16) + (linearToSrgb(dc[1]) << 8) + linearToSrgb(dc[2]), 4);
+        for (int k = 1; k < factors.length; k++) {
+            double[] ac = factors[k];
+            encode83(hash, quantiseAc(ac[0], maximumValue) * 19 * 19
+                    + quantiseAc(ac[1], maximumValue) * 19
+                    + quantiseAc(ac[2], maximumValue), 2);
+        }
+        return hash.toString();
+    }
+
+    private static int quantiseAc(double value, double maximumValue) {
+        double normalized = Math.signum(value) * Math.sqrt(Math.abs(value / maximumValue));
+        return (int) Math.max(0, Math.min(18, Math.floor(normalized * 9 + 9.5)));
+    }
+
+    private static float srgbToLinear(int value) {
+        double v = value / 255.0;
+        return (float) (v <= 0.04045 ? v / 12.92 : Math.pow((v + 0.055) / 1.055, 2.4));
+    }
+
+    private static int linearToSrgb(double value) {
+        double v = Math.max(0, Math.min(1, value));
+        return v <= 0.0031308
+                ? (int) (v * 12.92 * 255 + 0.5)
+                : (int) ((1.055 * Math.pow(v, 1 / 2.4) - 0.055) * 255 + 0.5);
+    }
+
+    private static void encode83(StringBuilder hash, int value, int length) {
+        for (int i = 1; i <= length; i++) {
+            int digit = (int) (value / Math.pow(83, length - i)) % 83;
+            hash.append(BASE83.charAt(digit));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.rbndjx.service;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Detects the real format of a file from its first bytes (magic numbers), so uploads cannot
+ * pass off one format as another through the declared content type. Only the formats the
+ * media library accepts are recognized.
+ */
+public final class ContentSniffer {
+
+    /**
+     * Number of leading bytes {@link #detect} needs.
+     */
+    public static final int HEADER_LENGTH = 512;
+
+    // MPEG transport stream packets are 188 bytes, each starting with this sync byte
+    private static final int TS_PACKET_SIZE = 188;
+    private static final int TS_SYNC_BYTE = 0x47;
+
+    private ContentSniffer() {
+    }
+
+    /**
+     * Format of the content starting with the given bytes, as a MIME type, or null if unknown.
+     * Word documents are reported as their container format: {@code application/x-ole-storage}
+     * for .doc and {@code application/zip} for .docx.
+     */
+    public static String detect(byte[] header, int length) {
+        if (startsWith(header, length, 0, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, length, 0, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, length, 0, "GIF87a") || startsWith(header, length, 0, "GIF89a")) {
+            return "image/gif";
+        }
+        if (startsWith(header, length, 0, "RIFF") && startsWith(header, length, 8, "WEBP")) {
+            return "image/webp";
+        }
+        if (startsWith(header, length, 0, "%PDF-")) {
+            return "application/pdf";
+        }
+        if (startsWith(header, length, 4, "ftyp")) {
+            // ISO base media file: the major brand tells QuickTime, HEIF images and MP4 apart
+            String brand = length >= 12 ? new String(header, 8, 4, StandardCharsets.ISO_8859_1) : "";
+            return switch (brand) {
+                case "qt  " -> "video/quicktime";
+                case "heic", "heix", "mif1", "msf1" -> "image/heif";
+                default -> "video/mp4";
+            };
+        }
+        if (startsWith(header, length, 0, 0x1A, 0x45, 0xDF, 0xA3)) {
+            // EBML header, shared by WebM and Matroska
+            return "video/webm";
+        }
+        if (startsWith(header, length, 0, 0x00, 0x00, 0x01, 0xBA) || startsWith(header, length, 0, 0x00, 0x00, 0x01, 0xB3)
+                || (length > TS_PACKET_SIZE && (header[0] & 0xFF) == TS_SYNC_BYTE && (header[TS_PACKET_SIZE] & 0xFF) == TS_SYNC_BYTE)) {
+            return "video/mpeg";
+        }
+        if (startsWith(header, length, 0, 0xD0, 0xCF, 0x11, 0xE0, 0xA1, 0xB1, 0x1A, 0xE1)) {
+            return "application/x-ole-storage";
+        }
+        if (startsWith(header, length, 0, 'P', 'K', 0x03, 0x04)) {
+            return "application/zip";
+        }
+        if (isText(header, length)) {
+            return "text/plain";
+        }
+        return null;
+    }
+
+    /**
+     * No NUL byte and no control character other than whitespace, form feed and escape.
+     */
+    private static boolean isText(byte[] header, int length) {
+        for (int i = 0; i < length; i++) {
+            int b = header[i] & 0xFF;
+            if (b < 0x20 && b != '\t' && b != '\n' && b != '\r' && b != '\f' && b != 0x1B) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, String signature) {
+        if (length < offset + signature.length()) {
+            return false;
+        }
+        for (int i = 0; i < signature.length(); i++) {
+            if (header[offset + i] != (byte) signature.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWith(byte[] header, int length, int offset, int... signature) {
+        if (length < offset + signature.length) {
+            return false;
+        }
+        for (int i = 0; i < signature.length; i++) {
+            if ((header[offset + i] & 0xFF) != signature[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,193 @@
+package com.rbndjx.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index with BM25 ranking and prefix matching.
+ * Documents are identified by id and made of weighted text fields; a field of weight 3
+ * counts each of its terms three times. Safe for concurrent searches and updates.
+ */
+public final class FullTextIndex {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Prefix expansions ("quar" -> "quarkus") score lower than exact term matches
+    private static final double PREFIX_WEIGHT = 0.5;
+    private static final int MAX_PREFIX_EXPANSIONS = 64;
+    private static final int MIN_TERM_LENGTH = 2;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // term -> (document id -> weighted term frequency), sorted for prefix lookups
+    private final TreeMap<String, Map<String, Integer>> postings = new TreeMap<>();
+    // document id -> its term frequencies, needed to unindex it
+    private final Map<String, Map<String, Integer>> documents = new HashMap<>();
+    private final Map<String, Integer> lengths = new HashMap<>();
+    private long totalLength;
+
+    public static final class Field {
+        final String text;
+        final int weight;
+
+        private Field(String text, int weight) {
+            this.text = text;
+            this.weight = weight;
+        }
+    }
+
+    public static Field field(String text, int weight) {
+        return new Field(text, weight);
+    }
+
+    public void put(String id, Field... fields) {
+        Map<String, Integer> frequencies = new HashMap<>();
+        int length = 0;
+        for (Field field : fields) {
+            if (field.text == null) {
+                continue;
+            }
+            for (String term : tokenize(field.text)) {
+                frequencies.merge(term, field.weight, Integer::sum);
+                length += field.weight;
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+            documents.put(id, frequencies);
+            lengths.put(id, length);
+            totalLength += length;
+            frequencies.forEach((term, frequency) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(id, frequency));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            removeUnlocked(id);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of the best matching documents, best first. Every query term also matches
+     * indexed terms it is a prefix of, so partially typed words find results.
+     */
+    public List<String> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            if (documentCount == 0) {
+                return List.of();
+            }
+            double averageLength = (double) totalLength / documentCount;
+
+            Map<String, Double> scores = new HashMap<>();
+            for (String term : terms) {
+                Map<String, Integer> exact = postings.get(term);
+                if (exact != null) {
+                    accumulate(exact, 1.0, documentCount, averageLength, scores);
+                }
+                int expansions = 0;
+                for (Map<String, Integer> expanded : postings.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+                    if (++expansions > MAX_PREFIX_EXPANSIONS) {
+                        break;
+                    }
+                    accumulate(expanded, PREFIX_WEIGHT, documentCount, averageLength, scores);
+                }
+            }
+            return topK(scores, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void accumulate(Map<String, Integer> posting, double weight, int documentCount,
+                            double averageLength, Map<String, Double> scores) {
+        int documentFrequency = posting.size();
+        double idf = Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        posting.forEach((id, frequency) -> {
+            double normalizedLength = lengths.get(id) / averageLength;
+            double tf = frequency * (K1 + 1) / (frequency + K1 * (1 - B + B * normalizedLength));
+            scores.merge(id, weight * idf * tf, Double::sum);
+        });
+    }
+
+    private static List<String> topK(Map<String, Double> scores, int limit) {
+        // Min-heap of the best candidates seen so far
+        PriorityQueue<Map.Entry<String, Double>> best = new PriorityQueue<>(limit + 1, Map.Entry.comparingByValue());
+        for (Map.Entry<String, Double> entry : scores.entrySet()) {
+            best.offer(entry);
+            if (best.size() > limit) {
+                best.poll();
+            }
+        }
+        List<String> ids = new ArrayList<>(best.size());
+        while (!best.isEmpty()) {
+            ids.add(best.poll().getKey());
+        }
+        Collections.reverse(ids);
+        return ids;
+    }
+
+    private void removeUnlocked(String id) {
+        Map<String, Integer> previous = documents.remove(id);
+        if (previous == null) {
+            return;
+        }
+        totalLength -= lengths.remove(id);
+        for (String term : previous.keySet()) {
+            Map<String, Integer> posting = postings.get(term);
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    /**
+     * Lower-cases, strips accents ("Générale" -> "generale") and splits on anything that is
+     * neither a letter nor a digit.
+     */
+    static List<String> tokenize(String text) {
+        String normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        List<String> terms = new ArrayList<>();
+        for (String term : SEPARATORS.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (term.length() >= MIN_TERM_LENGTH) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+}
@@ -0,0 +1,429 @@
+package com.rbndjx.service;
+
+import com.rbndjx.domain.Media;
+import com.rbndjx.domain.MediaRepository;
+import com.rbndjx.domain.MediaType;
+import com.rbndjx.domain.MediaVariant;
+import com.rbndjx.domain.PendingVariant;
+import com.rbndjx.domain.PendingVariantRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Post-upload processing of photos: a BlurHash placeholder and width-bounded derivatives
+ * for responsive images. Uploads only queue the photo in an outbox; a scheduled worker, or an
+ * explicit drain on deployments that freeze between requests, claims due rows with a lease and
+ * processes them on a small dedicated pool, retrying failures with exponential backoff.
+ * The original is read back from storage, each derivative is stored next to it as
+ * {@code <name>-<width>w.<ext>}, and the results are attached in a new transaction to every media
+ * row sharing the original.
+ */
+@ApplicationScoped
+public class ImageVariantService {
+
+    private static final Logger LOGGER = Logger.getLogger(ImageVariantService.class);
+
+    // Formats ImageIO decodes without plugins
+    private static final Set<String> DECODABLE_MIME_TYPES = Set.of("image/jpeg", "image/jpg", "image/png", "image/gif");
+    // GIFs get a placeholder but no variants, to keep their animation
+    private static final Set<String> VARIANT_MIME_TYPES = Set.of("image/jpeg", "image/jpg", "image/png");
+
+    // The placeholder is computed on a copy of 32 to 63 pixels on its longest side
+    private static final int PLACEHOLDER_DECODE_SIZE = 32;
+    private static final int PLACEHOLDER_X_COMPONENTS = 4;
+    private static final int PLACEHOLDER_Y_COMPONENTS = 3;
+
+    private static final Duration FIRST_RETRY_DELAY = Duration.ofSeconds(30);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+
+    @Inject
+    MediaRepository mediaRepository;
+
+    @Inject
+    PendingVariantRepository pendingVariantRepository;
+
+    @Inject
+    StorageService storageService;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    PortfolioReadModel readModel;
+
+    @ConfigProperty(name = "portfolio.media.variants.widths")
+    List<Integer> widths;
+
+    @ConfigProperty(name = "portfolio.media.variants.concurrency")
+    int concurrency;
+
+    @ConfigProperty(name = "portfolio.media.variants.max-pixels")
+    long maxPixels;
+
+    @ConfigProperty(name = "portfolio.media.variants.batch-size")
+    int batchSize;
+
+    @ConfigProperty(name = "portfolio.media.variants.lease")
+    Duration lease;
+
+    @ConfigProperty(name = "portfolio.media.variants.max-attempts")
+    int maxAttempts;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private ExecutorService executor;
+    private Counter processed;
+    private Counter failed;
+
+    @PostConstruct
+    void init() {
+        widths = widths.stream().sorted().toList();
+        executor = Executors.newFixedThreadPool(concurrency, runnable -> {
+            Thread thread = new Thread(runnable, "image-variants");
+            thread.setDaemon(true);
+            return thread;
+        });
+        processed = Counter.builder("portfolio.media_variants.photos").tag("result", "processed").register(meterRegistry);
+        failed = Counter.builder("portfolio.media_variants.photos").tag("result", "failed").register(meterRegistry);
+        meterRegistry.gauge("portfolio.media_variants.backlog", backlog);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues processing of the media, for the worker to pick up once the current transaction
+     * commits. Must run in the transaction that persists the media.
+     * Does nothing for media that are not photos in a supported format.
+     */
+    public void enqueue(Media media) {
+        if (media.type != MediaType.PHOTO || !DECODABLE_MIME_TYPES.contains(media.mimeType)) {
+            return;
+        }
+        pendingVariantRepository.persist(new PendingVariant(media.id, media.storageKey, media.mimeType));
+    }
+
+    @Scheduled(every = "{portfolio.media.variants.interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledDrain() {
+        drain();
+    }
+
+    /**
+     * Processes due photos until none is left, {@code concurrency} at a time, and returns once
+     * they are all done. Returns the number of rows processed.
+     */
+    public int drain() {
+        int count = 0;
+        List<PendingVariant> claimed;
+        do {
+            claimed = QuarkusTransaction.requiringNew().call(() -> {
+                LocalDateTime now = LocalDateTime.now();
+                return pendingVariantRepository.claimDue(batchSize, now, now.plus(lease));
+            });
+            if (!claimed.isEmpty()) {
+                process(claimed);
+                count += claimed.size();
+            }
+        } while (claimed.size() == batchSize);
+
+        backlog.set(QuarkusTransaction.requiringNew().call(pendingVariantRepository::countPending));
+        return count;
+    }
+
+    private void process(List<PendingVariant> claimed) {
+        // Decoded photos are the largest allocations of the application: the pool bounds how
+        // many are held at once. The lease keeps other workers away meanwhile
+        List<Callable<String>> tasks = claimed.stream()
+                .<Callable<String>>map(pending -> () -> generate(pending.mediaId, pending.storageKey, pending.mimeType))
+                .toList();
+        Map<String, String> errors = new HashMap<>();
+        List<String> doneIds = new ArrayList<>();
+        try {
+            List<Future<String>> results = executor.invokeAll(tasks);
+            for (int i = 0; i < claimed.size(); i++) {
+                String error = results.get(i).get();
+                if (error == null) {
+                    doneIds.add(claimed.get(i).id);
+                } else {
+                    errors.put(claimed.get(i).id, error);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Shutting down: the leases expire and the rows are claimed again
+            Thread.currentThread().interrupt();
+            return;
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            if (!doneIds.isEmpty()) {
+                pendingVariantRepository.delete("id IN ?1", doneIds);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            errors.forEach((id, error) -> {
+                PendingVariant pending = pendingVariantRepository.findById(id);
+                if (pending == null) {
+                    return;
+                }
+                pending.attempts++;
+                pending.lastError = error;
+                if (pending.attempts >= maxAttempts) {
+                    LOGGER.errorf("Image processing of media %s failed %d times, giving up: %s", pending.mediaId, pending.attempts, error);
+                    pendingVariantRepository.delete(pending);
+                } else if (mediaRepository.count("storageKey", pending.storageKey) == 0) {
+                    // Deleted meanwhile, along with the original
+                    pendingVariantRepository.delete(pending);
+                } else {
+                    pending.lockedUntil = null;
+                    pending.nextAttemptAt = now.plus(retryDelay(pending.attempts));
+                }
+            });
+        });
+
+        processed.increment(doneIds.size());
+        failed.increment(errors.size());
+        if (!errors.isEmpty()) {
+            LOGGER.warnf("%d of %d photos could not be processed and will be retried", errors.size(), claimed.size());
+        }
+    }
+
+    /**
+     * Processes one photo and returns null, or the error to retry on. Refused and undecodable
+     * images are done with: they would fail the same way again.
+     */
+    private String generate(String mediaId, String key, String mimeType) {
+        try {
+            RenderedImage rendered;
+            try (InputStream in = storageService.openObject(key)) {
+                rendered = render(in, mediaId, VARIANT_MIME_TYPES.contains(mimeType));
+            }
+            if (rendered == null) {
+                return null;
+            }
+            String placeholder = rendered.placeholder;
+            List<MediaVariant> variants = storeVariants(key, rendered.variants);
+
+            boolean attached = QuarkusTransaction.requiringNew().call(() -> {
+                // Locking first makes uploads of the same content wait, and the second query
+                // then also sees media created to share the original meanwhile
+                if (mediaRepository.lockByStorageKeys(List.of(key)).isEmpty()) {
+                    return false;
+                }
+                for (Media sharing : mediaRepository.list("storageKey", key)) {
+                    sharing.placeholder = placeholder;
+                    sharing.variants.clear();
+                    variants.forEach(variant -> sharing.variants.add(new MediaVariant(variant.width, variant.height,
+                            variant.url, variant.storageKey, variant.size)));
+                }
+                return true;
+            });
+            if (!attached) {
+                // Deleted while processing
+                if (!variants.isEmpty()) {
+                    storageService.deleteFiles(variants.stream().map(variant -> variant.storageKey).toList());
+                }
+                return null;
+            }
+            readModel.invalidate();
+            return null;
+        } catch (Exception e) {
+            LOGGER.warnf(e, "Image processing failed for media %s", mediaId);
+            return String.valueOf(e);
+        }
+    }
+
+    private static Duration retryDelay(int attempts) {
+        Duration delay = FIRST_RETRY_DELAY.multipliedBy(1L << Math.min(attempts - 1, 16));
+        return delay.compareTo(MAX_RETRY_DELAY) > 0 ? MAX_RETRY_DELAY : delay;
+    }
+
+    /**
+     * Downloads, decodes and encodes nothing twice: the original is decoded once, with source
+     * subsampling down to the largest variant it needs (or to placeholder size for images that
+     * need none), each variant is downscaled from the next larger one, and the placeholder from
+     * the smallest. The dimensions are read from the header before any pixel is decoded, and
+     * images above the pixel budget are refused, so a small file declaring huge dimensions cannot
+     * exhaust the heap. Returns null when the image is refused or cannot be decoded.
+     */
+    RenderedImage render(InputStream in, String mediaId, boolean withVariants) throws IOException {
+        try (ImageInputStream imageInput = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageInput);
+            if (!readers.hasNext()) {
+                LOGGER.warnf("Media %s could not be decoded", mediaId);
+                return null;
+            }
+            ImageReader reader = readers.next();
+            BufferedImage decoded;
+            List<Integer> variantWidths;
+            try {
+                reader.setInput(imageInput, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > maxPixels) {
+                    LOGGER.warnf("Media %s is %dx%d, above the budget of %d pixels, not processed", mediaId, width, height, maxPixels);
+                    return null;
+                }
+                // Variants are never upscaled: only configured widths below the original's
+                variantWidths = withVariants ? widths.stream().filter(variantWidth -> variantWidth < width).toList() : List.of();
+                int factor = variantWidths.isEmpty()
+                        ? Math.max(width, height) / PLACEHOLDER_DECODE_SIZE
+                        : width / variantWidths.get(variantWidths.size() - 1);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(Math.max(1, factor), Math.max(1, factor), 0, 0);
+                decoded = reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+
+            boolean alpha = decoded.getColorModel().hasAlpha();
+            String format = alpha ? "png" : "jpg";
+            RenderedImage rendered = new RenderedImage();
+            BufferedImage source = decoded;
+            for (int i = variantWidths.size() - 1; i >= 0; i--) {
+                source = scale(source, variantWidths.get(i), alpha);
+                rendered.variants.add(0, new RenderedVariant(source.getWidth(), source.getHeight(), format, encode(source, format)));
+            }
+            rendered.placeholder = BlurHash.encode(thumbnail(source, alpha), PLACEHOLDER_X_COMPONENTS, PLACEHOLDER_Y_COMPONENTS);
+            return rendered;
+        }
+    }
+
+    /**
+     * Stores the variants next to the original as {@code <name>-<width>w.<ext>}, keys a retry
+     * overwrites. If any upload fails, deletes those already stored before rethrowing.
+     */
+    private List<MediaVariant> storeVariants(String key, List<RenderedVariant> rendered) {
+        int slash = key.lastIndexOf('/');
+        String folder = slash >= 0 ? key.substring(0, slash) : null;
+        String baseName = stripExtension(key.substring(slash + 1));
+
+        List<MediaVariant> variants = new ArrayList<>();
+        try {
+            for (RenderedVariant variant : rendered) {
+                String mimeType = variant.format.equals("png") ? "image/png" : "image/jpeg";
+                String variantKey = storageService.uploadFile(new ByteArrayInputStream(variant.bytes),
+                        baseName + "-" + variant.width + "w." + variant.format, mimeType, folder, variant.bytes.length);
+                variants.add(new MediaVariant(variant.width, variant.height, storageService.getObjectUrl(variantKey),
+                        variantKey, (long) variant.bytes.length));
+            }
+            return variants;
+        } catch (RuntimeException e) {
+            // Keep no half-finished set
+            if (!variants.isEmpty()) {
+                storageService.deleteFiles(variants.stream().map(variant -> variant.storageKey).toList());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * The image itself when it is already placeholder-sized, else a copy of 32 pixels on its longest side.
+     */
+    private static BufferedImage thumbnail(BufferedImage source, boolean alpha) {
+        int longestSide = Math.max(source.getWidth(), source.getHeight());
+        if (longestSide < 2 * PLACEHOLDER_DECODE_SIZE) {
+            return source;
+        }
+        return scale(source, Math.max(1, source.getWidth() * PLACEHOLDER_DECODE_SIZE / longestSide), alpha);
+    }
+
+    /**
+     * Downscales by successive halvings then a final bilinear pass, which keeps quality
+     * close to bicubic resampling at a fraction of the cost.
+     */
+    private static BufferedImage scale(BufferedImage source, int targetWidth, boolean alpha) {
+        int targetHeight = Math.max(1, Math.round((float) source.getHeight() * targetWidth / source.getWidth()));
+        int type = alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = width == targetWidth ? targetHeight : Math.max(targetHeight, height / 2);
+
+            BufferedImage step = new BufferedImage(width, height, type);
+            Graphics2D graphics = step.createGraphics();
+            try {
+                graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                graphics.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                graphics.dispose();
+            }
+            current = step;
+        } while (width != targetWidth);
+        return current;
+    }
+
+    private static byte[] encode(BufferedImage image, String format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        if (!ImageIO.write(image, format, out)) {
+            throw new IOException("No ImageIO writer for " + format);
+        }
+        return out.toByteArray();
+    }
+
+    private static String stripExtension(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        return dot > 0 ? fileName.substring(0, dot) : fileName;
+    }
+
+    /**
+     * Placeholder and encoded variants of a photo, smallest variant first, before anything is stored.
+     */
+    static final class RenderedImage {
+        String placeholder;
+        final List<RenderedVariant> variants = new ArrayList<>();
+    }
+
+    static final class RenderedVariant {
+        final int width;
+        final int height;
+        final String format;
+        final byte[] bytes;
+
+        RenderedVariant(int width, int height, String format, byte[] bytes) {
+            this.width = width;
+            this.height = height;
+            this.format = format;
+            this.bytes = bytes;
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.rbndjx.service;
+
+import com.rbndjx.dto.PresignedUploadDTO;
+import com.rbndjx.dto.SignedUrlDTO;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.ByteArrayInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Objects kept in a sorted in-memory map, lost on restart. Meant for development and tests;
+ * URLs point to the {@code /storage} endpoint.
+ */
+@ApplicationScoped
+@Typed(InMemoryStorageBackend.class)
+public class InMemoryStorageBackend implements StorageBackend {
+
+    @ConfigProperty(name = "portfolio.storage.public-base-url")
+    String publicBaseUrl;
+
+    private final ConcurrentSkipListMap<String, StoredBytes> objects = new ConcurrentSkipListMap<>();
+
+    @Override
+    public void put(String key, InputStream data, long size, String contentType) {
+        if (size > Integer.MAX_VALUE - 8) {
+            throw new BadRequestException("Object too large for the in-memory storage backend");
+        }
+        try {
+            byte[] bytes = data.readNBytes((int) size);
+            if (bytes.length != size) {
+                throw new EOFException("Stream ended before the declared size of " + size + " bytes");
+            }
+            objects.put(key, new StoredBytes(bytes, contentType, Instant.now()));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store " + key, e);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) {
+        StoredBytes object = objects.get(key);
+        if (object == null) {
+            throw new NotFoundException("No stored object " + key);
+        }
+        return new ByteArrayInputStream(object.bytes);
+    }
+
+    @Override
+    public Optional<StoredObject> head(String key) {
+        return Optional.ofNullable(objects.get(key)).map(object -> object.toStoredObject(key));
+    }
+
+    @Override
+    public Map<String, String> delete(List<String> keys) {
+        keys.forEach(objects::remove);
+        return Map.of();
+    }
+
+    @Override
+    public Iterable<List<StoredObject>> list() {
+        return StorageBackend.paged(() -> objects.entrySet().stream()
+                .map(entry -> entry.getValue().toStoredObject(entry.getKey()))
+                .iterator());
+    }
+
+    @Override
+    public String url(String key) {
+        return publicBaseUrl + "/" + key;
+    }
+
+    @Override
+    public SignedUrlDTO presignGet(String key, Duration expiration) {
+        return new SignedUrlDTO(url(key), Instant.now().plus(expiration));
+    }
+
+    @Override
+    public PresignedUploadDTO presignPut(String key, String contentType, long size, String sha256, Duration expiration) {
+        throw new BadRequestException("Direct uploads are not supported by the in-memory storage backend, use POST /media/upload");
+    }
+
+    @Override
+    public boolean servedByApplication() {
+        return true;
+    }
+
+    private static final class StoredBytes {
+        final byte[] bytes;
+        final String contentType;
+        final Instant lastModified;
+
+        StoredBytes(byte[] bytes, String contentType, Instant lastModified) {
+            this.bytes = bytes;
+            this.contentType = contentType;
+            this.lastModified = lastModified;
+        }
+
+        StoredObject toStoredObject(String key) {
+            return new StoredObject(key, bytes.length, contentType, lastModified, null);
+        }
+    }
+}
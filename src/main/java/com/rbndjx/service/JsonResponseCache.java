@@ -0,0 +1,132 @@
+package com.rbndjx.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.util.function.Supplier;
+
+/**
+ * Serves list endpoints backed by the read model as pre-serialized JSON bytes.
+ * Bodies are memoized on the current {@link PortfolioSnapshot}, so they are dropped together
+ * with it on invalidation. Conditional requests are answered with 304 straight from the
+ * memoized ETag, without calling any service.
+ */
+@ApplicationScoped
+public class JsonResponseCache {
+
+    @Inject
+    PortfolioReadModel readModel;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "portfolio.http.precompress", defaultValue = "true")
+    boolean precompress;
+
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        hits = Counter.builder("portfolio.response_cache.lookups").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("portfolio.response_cache.lookups").tag("result", "miss").register(meterRegistry);
+    }
+
+    public Response respond(String key, HttpHeaders headers, Supplier<Object> producer) {
+        SerializedBody body = lookup(key, producer);
+
+        boolean gzip = body.gzip != null && acceptsGzip(headers.getHeaderString(HttpHeaders.ACCEPT_ENCODING));
+        // Each encoding is a distinct representation and needs its own strong validator
+        EntityTag tag = new EntityTag(gzip ? body.etag + "-gzip" : body.etag);
+
+        if (matches(headers.getHeaderString(HttpHeaders.IF_NONE_MATCH), tag.getValue())) {
+            return Response.notModified(tag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                    .build();
+        }
+
+        Response.ResponseBuilder response = Response.ok(gzip ? body.gzip : body.json, MediaType.APPLICATION_JSON_TYPE)
+                .tag(tag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.build();
+    }
+
+    private SerializedBody lookup(String key, Supplier<Object> producer) {
+        PortfolioSnapshot snapshot = readModel.peek();
+        SerializedBody body = snapshot != null ? snapshot.body(key) : null;
+        if (body != null) {
+            hits.increment();
+            return body;
+        }
+
+        misses.increment();
+        // Memoize on the snapshot taken before producing: the producer reads this one or a newer one,
+        // and a superseded snapshot is discarded with its bodies
+        snapshot = readModel.snapshot();
+        body = SerializedBody.of(objectMapper, producer.get(), precompress);
+        snapshot.putBody(key, body);
+        return body;
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String value = candidate.trim();
+            if (value.equals("*")) {
+                return true;
+            }
+            if (value.startsWith("W/")) {
+                value = value.substring(2);
+            }
+            if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            if (value.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(param.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,307 @@
+package com.rbndjx.service;
+
+import com.rbndjx.dto.PresignedUploadDTO;
+import com.rbndjx.dto.SignedUrlDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.net.URLConnection;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Objects as files under a local directory, one file per key. Files are written and read through
+ * {@link AsynchronousFileChannel}; uploads land in a temporary file that is atomically moved into
+ * place, so readers never see a partial object. URLs point to the {@code /storage} endpoint.
+ */
+@ApplicationScoped
+@Typed(LocalStorageBackend.class)
+public class LocalStorageBackend implements StorageBackend {
+
+    private static final int BUFFER_SIZE = 256 * 1024;
+    private static final String TEMP_PREFIX = ".upload-";
+
+    @ConfigProperty(name = "portfolio.storage.local.directory")
+    Path directory;
+
+    @ConfigProperty(name = "portfolio.storage.public-base-url")
+    String publicBaseUrl;
+
+    private Path root;
+
+    @PostConstruct
+    void init() throws IOException {
+        root = Files.createDirectories(directory).toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void put(String key, InputStream data, long size, String contentType) {
+        Path target = resolve(key);
+        try {
+            Files.createDirectories(target.getParent());
+            Path temp = Files.createTempFile(target.getParent(), TEMP_PREFIX, ".part");
+            try {
+                write(data, size, temp);
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not store " + key, e);
+        }
+    }
+
+    /**
+     * Copies the stream with two buffers: the next chunk is read while the previous one is being
+     * written, so the copy takes as long as the slower side instead of the sum of both.
+     */
+    private static void write(InputStream data, long size, Path file) throws IOException {
+        try (AsynchronousFileChannel channel = AsynchronousFileChannel.open(file, StandardOpenOption.WRITE)) {
+            ByteBuffer current = ByteBuffer.allocate(BUFFER_SIZE);
+            ByteBuffer other = ByteBuffer.allocate(BUFFER_SIZE);
+            ByteBuffer pendingBuffer = null;
+            Future<Integer> pending = null;
+            long pendingPosition = 0;
+            long position = 0;
+
+            while (true) {
+                int read = data.readNBytes(current.array(), 0, current.capacity());
+                if (pending != null) {
+                    complete(channel, pendingBuffer, pendingPosition, pending);
+                    pending = null;
+                }
+                if (read == 0) {
+                    break;
+                }
+                if (position + read > size) {
+                    throw new IOException("Stream is longer than the declared size of " + size + " bytes");
+                }
+                current.clear().limit(read);
+                pending = channel.write(current, position);
+                pendingBuffer = current;
+                pendingPosition = position;
+                position += read;
+
+                current = other;
+                other = pendingBuffer;
+            }
+            if (position != size) {
+                throw new EOFException("Stream ended before the declared size of " + size + " bytes");
+            }
+            channel.force(false);
+        }
+    }
+
+    /**
+     * Waits for the write, then finishes it if the channel wrote only part of the buffer.
+     */
+    private static void complete(AsynchronousFileChannel channel, ByteBuffer buffer, long position,
+                                 Future<Integer> write) throws IOException {
+        await(write);
+        while (buffer.hasRemaining()) {
+            await(channel.write(buffer, position + buffer.position()));
+        }
+    }
+
+    private static int await(Future<Integer> operation) throws IOException {
+        try {
+            return operation.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted during file I/O");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException cause ? cause : new IOException(e.getCause());
+        }
+    }
+
+    @Override
+    public InputStream open(String key) {
+        try {
+            return new ChannelInputStream(AsynchronousFileChannel.open(resolve(key), StandardOpenOption.READ));
+        } catch (NoSuchFileException e) {
+            throw new NotFoundException("No stored object " + key);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open " + key, e);
+        }
+    }
+
+    @Override
+    public Optional<StoredObject> head(String key) {
+        try {
+            return Optional.of(toStoredObject(key, resolve(key)));
+        } catch (NoSuchFileException e) {
+            return Optional.empty();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read attributes of " + key, e);
+        }
+    }
+
+    @Override
+    public Map<String, String> delete(List<String> keys) {
+        Map<String, String> errors = new HashMap<>();
+        for (String key : keys) {
+            try {
+                Files.deleteIfExists(resolve(key));
+            } catch (IOException | BadRequestException e) {
+                errors.put(key, e.toString());
+            }
+        }
+        return errors;
+    }
+
+    /**
+     * Keys are collected up front, which is fine for a local tree; attributes are read page by page.
+     */
+    @Override
+    public Iterable<List<StoredObject>> list() {
+        List<String> keys;
+        try (Stream<Path> files = Files.walk(root)) {
+            keys = files
+                    .filter(Files::isRegularFile)
+                    .filter(file -> !file.getFileName().toString().startsWith(TEMP_PREFIX))
+                    .map(file -> root.relativize(file).toString().replace(file.getFileSystem().getSeparator(), "/"))
+                    .sorted()
+                    .toList();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not list " + root, e);
+        }
+        return StorageBackend.paged(() -> keys.stream()
+                .map(this::head)
+                .flatMap(Optional::stream)
+                .iterator());
+    }
+
+    @Override
+    public String url(String key) {
+        return publicBaseUrl + "/" + key;
+    }
+
+    /**
+     * Local objects are not protected: the URL is the public one, valid for the requested time.
+     */
+    @Override
+    public SignedUrlDTO presignGet(String key, Duration expiration) {
+        return new SignedUrlDTO(url(key), Instant.now().plus(expiration));
+    }
+
+    @Override
+    public PresignedUploadDTO presignPut(String key, String contentType, long size, String sha256, Duration expiration) {
+        throw new BadRequestException("Direct uploads are not supported by the local storage backend, use POST /media/upload");
+    }
+
+    @Override
+    public boolean servedByApplication() {
+        return true;
+    }
+
+    private static StoredObject toStoredObject(String key, Path file) throws IOException {
+        BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        return new StoredObject(key, attributes.size(), URLConnection.guessContentTypeFromName(key),
+                attributes.lastModifiedTime().toInstant(), null);
+    }
+
+    /**
+     * Maps the key to its file, refusing keys that would escape the storage directory.
+     */
+    private Path resolve(String key) {
+        Path file = root.resolve(key).normalize();
+        if (key.isBlank() || !file.startsWith(root) || file.equals(root)) {
+            throw new BadRequestException("Invalid storage key " + key);
+        }
+        return file;
+    }
+
+    /**
+     * Reads the file sequentially, always keeping the read of the next chunk in flight
+     * while the current one is consumed.
+     */
+    private static final class ChannelInputStream extends InputStream {
+
+        private final AsynchronousFileChannel channel;
+        private ByteBuffer current = ByteBuffer.allocate(BUFFER_SIZE).flip();
+        private ByteBuffer next = ByteBuffer.allocate(BUFFER_SIZE);
+        private Future<Integer> pending;
+        private long position;
+        private boolean eof;
+
+        ChannelInputStream(AsynchronousFileChannel channel) {
+            this.channel = channel;
+            prefetch();
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (!current.hasRemaining() && !fill()) {
+                return -1;
+            }
+            return current.get() & 0xff;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!current.hasRemaining() && !fill()) {
+                return -1;
+            }
+            int count = Math.min(length, current.remaining());
+            current.get(bytes, offset, count);
+            return count;
+        }
+
+        @Override
+        public void close() throws IOException {
+            channel.close();
+        }
+
+        private void prefetch() {
+            next.clear();
+            pending = channel.read(next, position);
+        }
+
+        /**
+         * Makes the prefetched chunk current and starts reading the one after it.
+         */
+        private boolean fill() throws IOException {
+            if (eof) {
+                return false;
+            }
+            int read = await(pending);
+            if (read <= 0) {
+                eof = true;
+                return false;
+            }
+            position += read;
+            ByteBuffer filled = next;
+            next = current;
+            current = filled.flip();
+            prefetch();
+            return true;
+        }
+    }
+}
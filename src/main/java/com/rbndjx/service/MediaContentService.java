@@ -0,0 +1,361 @@
+package com.rbndjx.service;
+
+import com.rbndjx.domain.Media;
+import com.rbndjx.domain.MediaRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.runtime.configuration.MemorySize;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import org.jboss.resteasy.reactive.PathPart;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Optional proxy serving media bytes from a size-bounded LRU cache on local disk, filled from
+ * the storage backend on miss. Files are sent with {@link PathPart}, which the server writes with sendfile
+ * (FileChannel.transferTo), for both full responses and single byte ranges.
+ * The server opens the file only when it writes the body, so a file handed to a response is pinned
+ * until the response ends: evicting it meanwhile drops it from the index but defers the unlink.
+ */
+@ApplicationScoped
+public class MediaContentService {
+
+    private static final Logger LOGGER = Logger.getLogger(MediaContentService.class);
+
+    // Marker for a Range header that cannot be satisfied
+    private static final long[] UNSATISFIABLE = new long[0];
+
+    @Inject
+    MediaRepository mediaRepository;
+
+    @Inject
+    StorageService storageService;
+
+    @Inject
+    TransactionHooks transactionHooks;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    RoutingContext routingContext;
+
+    @ConfigProperty(name = "portfolio.media.content-cache.enabled")
+    boolean enabled;
+
+    @ConfigProperty(name = "portfolio.media.content-cache.directory")
+    Path directory;
+
+    @ConfigProperty(name = "portfolio.media.content-cache.max-size")
+    MemorySize maxSize;
+
+    // Media ID -> cached file size, in access order; guards itself, totalSize, pins and evictedWhilePinned
+    private final Map<String, Long> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long totalSize;
+    // Media ID -> responses still to send the file
+    private final Map<String, Integer> pins = new HashMap<>();
+    // Pinned files already evicted, unlinked when the last pin is released
+    private final Set<String> evictedWhilePinned = new HashSet<>();
+    private final ConcurrentHashMap<String, CompletableFuture<Void>> loading = new ConcurrentHashMap<>();
+
+    private Counter hits;
+    private Counter misses;
+
+    void onStart(@Observes StartupEvent event) throws IOException {
+        if (!enabled) {
+            return;
+        }
+        hits = Counter.builder("portfolio.media_content_cache.lookups").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("portfolio.media_content_cache.lookups").tag("result", "miss").register(meterRegistry);
+
+        // Start empty: leftovers from a previous run are not in the index
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(this::deleteQuietly);
+        }
+    }
+
+    /**
+     * @param ifRange values of the If-Range header, which the Lambda adapter splits at commas, dates included
+     */
+    public Response respond(String id, String range, List<String> ifRange, Request request) {
+        if (!enabled) {
+            throw new NotFoundException("Media content proxy is disabled");
+        }
+        Media media = mediaRepository.findById(id);
+        if (media == null) {
+            throw new NotFoundException("Media not found");
+        }
+
+        EntityTag etag = new EntityTag(media.contentSha256 != null ? media.contentSha256 : media.id + "-" + media.size);
+        Instant uploadedAt = media.uploadedAt.atZone(ZoneId.systemDefault()).toInstant();
+        Date lastModified = Date.from(uploadedAt);
+
+        // Answered from the row alone, without touching the cache or the storage backend
+        Response.ResponseBuilder precondition = request.evaluatePreconditions(lastModified, etag);
+        if (precondition != null) {
+            return precondition.build();
+        }
+
+        long size = pin(media);
+        routingContext.addEndHandler(result -> release(media.id));
+        Path file = file(media.id);
+
+        // A stale If-Range means the client's partial copy is outdated: send the whole file
+        String validator = ifRange == null || ifRange.isEmpty() ? null : String.join(",", ifRange);
+        boolean rangeApplies = range != null && (validator == null
+                || validator.equals(etag.toString())
+                || sameSecond(validator, uploadedAt));
+        long[] bounds = rangeApplies ? parseRange(range, size) : null;
+
+        Response.ResponseBuilder response;
+        if (bounds == UNSATISFIABLE) {
+            return Response.status(Response.Status.REQUESTED_RANGE_NOT_SATISFIABLE)
+                    .header("Content-Range", "bytes */" + size)
+                    .build();
+        } else if (bounds != null) {
+            long length = bounds[1] - bounds[0] + 1;
+            response = Response.status(Response.Status.PARTIAL_CONTENT)
+                    .entity(new PathPart(file, bounds[0], length))
+                    .header("Content-Range", "bytes " + bounds[0] + "-" + bounds[1] + "/" + size);
+        } else {
+            response = Response.ok(new PathPart(file, 0, size));
+        }
+        return response
+                .type(media.mimeType)
+                .tag(etag)
+                .lastModified(lastModified)
+                .header("Accept-Ranges", "bytes")
+                .header(HttpHeaders.CACHE_CONTROL, "public, max-age=86400")
+                .build();
+    }
+
+    /**
+     * Drops the cached files of the media once the current transaction commits.
+     */
+    public void evict(Collection<String> ids) {
+        if (!enabled || ids.isEmpty()) {
+            return;
+        }
+        List<String> evicted = List.copyOf(ids);
+        transactionHooks.afterCommit(() -> {
+            synchronized (entries) {
+                for (String id : evicted) {
+                    Long size = entries.remove(id);
+                    if (size != null) {
+                        totalSize -= size;
+                        unlink(id);
+                    }
+                }
+            }
+        });
+    }
+
+    /**
+     * Pins the cached file of the media, downloading it first on miss, and returns its size.
+     * Every call must be followed by one {@link #release(String)}.
+     */
+    private long pin(Media media) {
+        Long size = pinIfCached(media.id);
+        if (size != null) {
+            hits.increment();
+            return size;
+        }
+        misses.increment();
+
+        while (true) {
+            // Concurrent misses on the same media share one download
+            CompletableFuture<Void> download = new CompletableFuture<>();
+            CompletableFuture<Void> inFlight = loading.putIfAbsent(media.id, download);
+            if (inFlight == null) {
+                try {
+                    size = download(media);
+                    download.complete(null);
+                    return size;
+                } catch (RuntimeException e) {
+                    download.completeExceptionally(e);
+                    throw e;
+                } finally {
+                    loading.remove(media.id);
+                }
+            }
+            try {
+                inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+            size = pinIfCached(media.id);
+            if (size != null) {
+                return size;
+            }
+            // Evicted before this request could pin it: load it again
+        }
+    }
+
+    private Long pinIfCached(String id) {
+        synchronized (entries) {
+            Long size = entries.get(id);
+            if (size != null) {
+                pins.merge(id, 1, Integer::sum);
+            }
+            return size;
+        }
+    }
+
+    private void release(String id) {
+        synchronized (entries) {
+            if (pins.merge(id, -1, Integer::sum) > 0) {
+                return;
+            }
+            pins.remove(id);
+            if (evictedWhilePinned.remove(id)) {
+                deleteQuietly(file(id));
+            }
+        }
+    }
+
+    // Downloads the media into the cache and returns its size, pinned
+    private long download(Media media) {
+        Path target = file(media.id);
+        try {
+            Path temp = Files.createTempFile(directory, media.id, ".part");
+            try (InputStream in = storageService.openObject(media.storageKey)) {
+                Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                long size = Files.size(temp);
+                synchronized (entries) {
+                    // Replaces any evicted copy still being sent: open handles keep reading the old file
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    evictedWhilePinned.remove(media.id);
+                    add(media.id, size);
+                    pins.merge(media.id, 1, Integer::sum);
+                }
+                return size;
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not cache media " + media.id, e);
+        }
+    }
+
+    // Called with the entries lock held
+    private void add(String id, long size) {
+        Long previous = entries.put(id, size);
+        totalSize += size - (previous != null ? previous : 0);
+        Iterator<Map.Entry<String, Long>> eldest = entries.entrySet().iterator();
+        while (totalSize > maxSize.asLongValue() && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            if (entry.getKey().equals(id)) {
+                continue;
+            }
+            eldest.remove();
+            totalSize -= entry.getValue();
+            unlink(entry.getKey());
+        }
+    }
+
+    // Called with the entries lock held, once the file is out of the index
+    private void unlink(String id) {
+        if (pins.containsKey(id)) {
+            evictedWhilePinned.add(id);
+        } else {
+            deleteQuietly(file(id));
+        }
+    }
+
+    // If-Range dates are compared as instants, to the second of Last-Modified
+    private static boolean sameSecond(String httpDate, Instant instant) {
+        try {
+            return ZonedDateTime.parse(httpDate, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant()
+                    .equals(instant.truncatedTo(ChronoUnit.SECONDS));
+        } catch (DateTimeParseException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Bounds of a single "bytes=" range, null to ignore the header and send the whole file,
+     * or {@link #UNSATISFIABLE}. Multiple ranges are ignored, as RFC 9110 allows.
+     */
+    private static long[] parseRange(String header, long size) {
+        if (!header.startsWith("bytes=") || header.indexOf(',') >= 0) {
+            return null;
+        }
+        String spec = header.substring("bytes=".length()).trim();
+        int dash = spec.indexOf('-');
+        if (dash < 0) {
+            return null;
+        }
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start;
+            long end;
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) {
+                    return UNSATISFIABLE;
+                }
+                start = Math.max(0, size - suffix);
+                end = size - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? size - 1 : Math.min(Long.parseLong(last), size - 1);
+            }
+            if (start >= size || start > end) {
+                return UNSATISFIABLE;
+            }
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private Path file(String id) {
+        return directory.resolve(id);
+    }
+
+    private void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            LOGGER.warnf(e, "Could not delete cached file %s", file);
+        }
+    }
+}
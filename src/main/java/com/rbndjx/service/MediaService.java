@@ -3,17 +3,47 @@ package com.rbndjx.service;
 import com.rbndjx.domain.Media;
 import com.rbndjx.domain.MediaRepository;
 import com.rbndjx.domain.MediaType;
+import com.rbndjx.domain.MediaVariant;
+import com.rbndjx.domain.PendingUpload;
+import com.rbndjx.domain.PendingUploadRepository;
+import com.rbndjx.domain.StorageDeletionRepository;
+import com.rbndjx.dto.ConfirmUploadDTO;
 import com.rbndjx.dto.MediaDTO;
+import com.rbndjx.dto.MediaVariantDTO;
+import com.rbndjx.dto.PageDTO;
+import com.rbndjx.dto.PresignedUploadDTO;
+import com.rbndjx.dto.SignedUrlDTO;
+import com.rbndjx.dto.SignedUrlsDTO;
+import com.rbndjx.dto.UploadRequestDTO;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
 import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
 import java.util.stream.Collectors;
-import java.util.stream.Stream;
 
 @ApplicationScoped
 public class MediaService {
@@ -22,46 +52,215 @@ public class MediaService {
     MediaRepository mediaRepository;
 
     @Inject
-    S3Service s3Service;
+    StorageService storageService;
+
+    @Inject
+    PortfolioReadModel readModel;
+
+    @Inject
+    SignedUrlCache signedUrlCache;
+
+    @Inject
+    ImageVariantService imageVariantService;
+
+    @Inject
+    MediaStatsService mediaStatsService;
+
+    @Inject
+    StorageDeletionService storageDeletionService;
+
+    @Inject
+    StorageDeletionRepository storageDeletionRepository;
+
+    @Inject
+    PendingUploadRepository pendingUploadRepository;
+
+    @ConfigProperty(name = "portfolio.media.upload-url-expiry")
+    Duration uploadUrlExpiry;
 
     private static final long MAX_FILE_SIZE = 50 * 1024 * 1024; // 50MB
-    private static final List<String> ALLOWED_IMAGE_TYPES = List.of(
-            "image/jpeg", "image/jpg", "image/png", "image/gif", "image/webp"
-    );
-    private static final List<String> ALLOWED_VIDEO_TYPES = List.of(
-            "video/mp4", "video/mpeg", "video/quicktime", "video/webm"
-    );
-    private static final List<String> ALLOWED_DOCUMENT_TYPES = List.of(
-            "application/pdf", "application/msword",
-            "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
-            "text/plain"
+    // Allowed declared type -> formats the content sniffer may detect for it
+    private static final Map<String, Set<String>> ALLOWED_TYPES = Map.ofEntries(
+            Map.entry("image/jpeg", Set.of("image/jpeg")),
+            Map.entry("image/jpg", Set.of("image/jpeg")),
+            Map.entry("image/png", Set.of("image/png")),
+            Map.entry("image/gif", Set.of("image/gif")),
+            Map.entry("image/webp", Set.of("image/webp")),
+            // MP4 and QuickTime share a container and are often labelled one for the other
+            Map.entry("video/mp4", Set.of("video/mp4", "video/quicktime")),
+            Map.entry("video/quicktime", Set.of("video/mp4", "video/quicktime")),
+            Map.entry("video/mpeg", Set.of("video/mpeg")),
+            Map.entry("video/webm", Set.of("video/webm")),
+            Map.entry("application/pdf", Set.of("application/pdf")),
+            Map.entry("application/msword", Set.of("application/x-ole-storage")),
+            Map.entry("application/vnd.openxmlformats-officedocument.wordprocessingml.document", Set.of("application/zip")),
+            Map.entry("text/plain", Set.of("text/plain"))
     );
+    private static final String ALLOWED_TYPES_DESCRIPTION = String.join(", ", new TreeSet<>(ALLOWED_TYPES.keySet()));
 
     @Transactional
     public MediaDTO uploadMedia(InputStream fileStream, String originalName, String mimeType, 
                                 long fileSize, String uploadedBy, String alt, String folder) {
-        // Validate file
+        // Validate file, and its content from the first bytes before anything is stored
         validateFile(fileSize, mimeType, originalName);
+        byte[] header;
+        try {
+            header = fileStream.readNBytes(ContentSniffer.HEADER_LENGTH);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read uploaded file", e);
+        }
+        validateContent(mimeType, header);
+        InputStream content = new SequenceInputStream(new ByteArrayInputStream(header), fileStream);
 
         // Generate unique filename
-        String fileName = s3Service.generateUniqueFileName(originalName);
+        String fileName = storageService.generateUniqueFileName(originalName);
 
         // Determine folder based on mime type if not provided
-        String targetFolder = folder != null ? folder : s3Service.getFolderByMimeType(mimeType);
-
-        // Upload to S3
-        String url = s3Service.uploadFile(fileStream, fileName, mimeType, targetFolder, fileSize);
+        String targetFolder = folder != null ? folder : storageService.getFolderByMimeType(mimeType);
+
+        // Store the file, hashing the bytes on the way so duplicates are found without a second pass
+        MessageDigest digest = sha256();
+        String key = storageService.uploadFile(new DigestInputStream(content, digest), fileName, mimeType, targetFolder, fileSize);
+        String contentSha256 = HexFormat.of().formatHex(digest.digest());
+
+        Optional<Media> existing = mediaRepository.findByContentSha256(contentSha256);
+        if (existing.isPresent()) {
+            // Same content already stored: keep a single object, shared by a new row
+            storageDeletionService.enqueueKey(key);
+            return toDTO(shareStorage(existing.get(), originalName, alt, uploadedBy));
+        }
 
         // Create media entity
         MediaType mediaType = Media.determineTypeFromMimeType(mimeType);
-        Media media = new Media(mediaType, url, originalName, fileName, mimeType, fileSize, alt, uploadedBy);
+        Media media = new Media(mediaType, storageService.getObjectUrl(key), originalName, fileName, mimeType, fileSize, alt, uploadedBy);
+        media.storageKey = key;
+        media.contentSha256 = contentSha256;
+        media.folder = targetFolder;
 
         // Persist to database
         mediaRepository.persist(media);
+        imageVariantService.enqueue(media);
+        mediaStatsService.invalidate();
 
         return toDTO(media);
     }
 
+    /**
+     * First step of a direct upload: validates the declared file and presigns a PUT for it.
+     * The bytes go straight to the storage backend; the media row is only created by {@link #confirmUpload}.
+     */
+    @Transactional
+    public PresignedUploadDTO requestUpload(UploadRequestDTO request) {
+        validateFile(request.size, request.mimeType, request.fileName);
+
+        String contentSha256 = null;
+        if (request.sha256 != null) {
+            contentSha256 = request.sha256.toLowerCase();
+            Optional<Media> existing = mediaRepository.findByContentSha256(contentSha256);
+            if (existing.isPresent()) {
+                return PresignedUploadDTO.existing(toDTO(shareStorage(existing.get(), request.fileName, request.alt, request.uploadedBy)));
+            }
+        }
+
+        String fileName = storageService.generateUniqueFileName(request.fileName);
+        String targetFolder = request.folder != null ? request.folder : storageService.getFolderByMimeType(request.mimeType);
+        String key = storageService.buildKey(fileName, targetFolder);
+
+        PresignedUploadDTO upload = storageService.presignUpload(key, request.mimeType, request.size, contentSha256, uploadUrlExpiry);
+        // Only keys issued here can be confirmed
+        pendingUploadRepository.persist(new PendingUpload(key, request.mimeType, request.size, contentSha256,
+                LocalDateTime.ofInstant(upload.expiresAt, ZoneId.systemDefault())));
+        return upload;
+    }
+
+    /**
+     * Second step of a direct upload: checks the uploaded object against the upload that was
+     * requested for its key and persists its media row. The HEAD and content checks run before
+     * any transaction is opened; the pending upload is consumed in the one persisting the media.
+     */
+    public MediaDTO confirmUpload(ConfirmUploadDTO confirmation) {
+        String key = confirmation.key;
+        PendingUpload pending = pendingUploadRepository.findById(key);
+        if (pending == null) {
+            throw new BadRequestException("No pending upload for key " + key + ", or it is already confirmed");
+        }
+        // One more URL lifetime after the URL expires, for the upload to finish. Reconciliation
+        // only treats objects older than its grace period as orphans, far past this deadline
+        if (LocalDateTime.now().isAfter(pending.expiresAt.plus(uploadUrlExpiry))) {
+            throw new BadRequestException("Upload " + key + " has expired, request a new upload URL");
+        }
+
+        StoredObject object = storageService.headObject(key)
+                .orElseThrow(() -> new BadRequestException("No uploaded object found for key " + key));
+
+        String mimeType = object.contentType;
+        long fileSize = object.size;
+        try {
+            if (!pending.mimeType.equals(mimeType) || pending.size != fileSize) {
+                throw new BadRequestException("Uploaded object does not match the requested upload");
+            }
+            validateFile(fileSize, mimeType, confirmation.originalName);
+            validateContent(mimeType, storageService.readPrefix(key, ContentSniffer.HEADER_LENGTH));
+        } catch (BadRequestException e) {
+            // Never keep an object we refuse to reference. The key is known to be the one
+            // issued for this upload, so nothing else can be deleted here
+            storageService.deleteFile(key);
+            QuarkusTransaction.requiringNew().run(() -> pendingUploadRepository.deleteById(key));
+            throw e;
+        }
+
+        return QuarkusTransaction.requiringNew().call(() -> {
+            // Queued by reconciliation with a short grace period: the object is about to go
+            if (!storageDeletionRepository.findQueuedKeys(List.of(key)).isEmpty()) {
+                throw new BadRequestException("Upload " + key + " is being deleted, request a new upload URL");
+            }
+            if (!pendingUploadRepository.deleteById(key)) {
+                throw new BadRequestException("Upload " + key + " is already confirmed");
+            }
+
+            // Only present when the client declared a checksum, which the backend verified on upload
+            String contentSha256 = object.sha256;
+            if (contentSha256 != null) {
+                Optional<Media> existing = mediaRepository.findByContentSha256(contentSha256);
+                if (existing.isPresent()) {
+                    storageDeletionService.enqueueKey(key);
+                    return toDTO(shareStorage(existing.get(), confirmation.originalName, confirmation.alt, confirmation.uploadedBy));
+                }
+            }
+
+            String fileName = key.substring(key.lastIndexOf('/') + 1);
+            MediaType mediaType = Media.determineTypeFromMimeType(mimeType);
+            Media media = new Media(mediaType, storageService.getObjectUrl(key), confirmation.originalName, fileName, mimeType, fileSize,
+                    confirmation.alt, confirmation.uploadedBy);
+            media.storageKey = key;
+            media.contentSha256 = contentSha256;
+            int slash = key.lastIndexOf('/');
+            media.folder = slash >= 0 ? key.substring(0, slash) : null;
+            mediaRepository.persist(media);
+            imageVariantService.enqueue(media);
+            mediaStatsService.invalidate();
+
+            return toDTO(media);
+        });
+    }
+
+    /**
+     * Creates a media for content already stored, pointing at the same object and variants.
+     * The source must be locked; shared objects are only deleted with their last media.
+     */
+    private Media shareStorage(Media source, String originalName, String alt, String uploadedBy) {
+        Media media = new Media(source.type, source.url, originalName, source.fileName, source.mimeType, source.size, alt, uploadedBy);
+        media.storageKey = source.storageKey;
+        media.contentSha256 = source.contentSha256;
+        media.folder = source.folder;
+        media.placeholder = source.placeholder;
+        source.variants.forEach(variant -> media.variants.add(
+                new MediaVariant(variant.width, variant.height, variant.url, variant.storageKey, variant.size)));
+        mediaRepository.persist(media);
+        mediaStatsService.invalidate();
+        return media;
+    }
+
     public MediaDTO getById(String id) {
         Media media = mediaRepository.findById(id);
         if (media == null) {
@@ -70,11 +269,33 @@ public class MediaService {
         return toDTO(media);
     }
 
-    public List<MediaDTO> getAllMedia() {
-        return mediaRepository.listAll()
-                .stream()
+    public PageDTO<MediaDTO> listPage(String cursor, int limit, MediaType type, String mimeType,
+                                      String uploadedBy, Boolean attached) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = PageCursor.clampPageSize(limit);
+
+        // Fetch one extra row to know whether a next page exists
+        List<Media> media = mediaRepository.findPage(
+                after != null ? after.timestamp : null,
+                after != null ? after.id : null,
+                type,
+                mimeType,
+                uploadedBy,
+                attached,
+                pageSize + 1
+        );
+
+        String nextCursor = null;
+        if (media.size() > pageSize) {
+            media = media.subList(0, pageSize);
+            Media last = media.get(pageSize - 1);
+            nextCursor = new PageCursor(last.uploadedAt, last.id).encode();
+        }
+
+        List<MediaDTO> items = media.stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
+        return new PageDTO<>(items, nextCursor);
     }
 
     @Transactional
@@ -84,25 +305,72 @@ public class MediaService {
             throw new NotFoundException("Media not found");
         }
 
-        // Delete from S3
-        s3Service.deleteFileByUrl(media.url);
+        // Delete from storage and drop cached copies once committed
+        storageDeletionService.enqueue(media);
 
         // Delete from database
         mediaRepository.delete(media);
+        mediaStatsService.invalidate();
+        readModel.invalidate();
     }
 
-    public String generateSignedUrl(String id, int expirationSeconds) {
-        Media media = mediaRepository.findById(id);
-        if (media == null) {
-            throw new NotFoundException("Media not found");
+    public SignedUrlDTO generateSignedUrl(String id, int expirationSeconds) {
+        if (expirationSeconds <= 0) {
+            throw new BadRequestException("expiresIn must be positive");
+        }
+        int lifetime = SignedUrlCache.lifetime(expirationSeconds);
+        return signedUrlCache.get(id, lifetime, () -> {
+            Media media = mediaRepository.findById(id);
+            if (media == null) {
+                throw new NotFoundException("Media not found");
+            }
+            return signUrl(media, lifetime);
+        });
+    }
+
+    /**
+     * Signs URLs for many media at once: cached URLs are reused, the remaining media
+     * are loaded with a single IN query and presigned in parallel.
+     */
+    public SignedUrlsDTO generateSignedUrls(List<String> ids, int expirationSeconds) {
+        if (expirationSeconds <= 0) {
+            throw new BadRequestException("expiresIn must be positive");
         }
 
-        // Extract filename and folder from URL
-        String[] urlParts = media.url.split("/");
-        String fileName = urlParts[urlParts.length - 1];
-        String folder = urlParts.length > 4 ? urlParts[urlParts.length - 2] : null;
+        int lifetime = SignedUrlCache.lifetime(expirationSeconds);
+        SignedUrlsDTO result = new SignedUrlsDTO();
+        Set<String> missing = new LinkedHashSet<>();
+        for (String id : ids) {
+            SignedUrlDTO cached = signedUrlCache.find(id, lifetime);
+            if (cached != null) {
+                result.urls.put(id, cached);
+            } else {
+                missing.add(id);
+            }
+        }
+        if (missing.isEmpty()) {
+            return result;
+        }
 
-        return s3Service.generateSignedUrl(fileName, folder, expirationSeconds);
+        Map<String, Media> media = mediaRepository.list("id IN ?1", missing)
+                .stream()
+                .collect(Collectors.toMap(m -> m.id, Function.identity()));
+
+        // Presigning is local CPU work (SigV4 HMACs), so it parallelizes without any I/O
+        Map<String, SignedUrlDTO> signed = new ArrayList<>(media.values())
+                .parallelStream()
+                .collect(Collectors.toConcurrentMap(m -> m.id, m -> signUrl(m, lifetime)));
+
+        for (String id : missing) {
+            SignedUrlDTO url = signed.get(id);
+            if (url == null) {
+                result.errors.put(id, "Media not found");
+                continue;
+            }
+            signedUrlCache.put(id, lifetime, url);
+            result.urls.put(id, url);
+        }
+        return result;
     }
 
     @Transactional
@@ -114,25 +382,19 @@ public class MediaService {
 
         media.alt = alt;
         mediaRepository.persist(media);
+        readModel.invalidate();
         return toDTO(media);
     }
 
     public MediaStats getMediaStats() {
-        List<Media> allMedia = mediaRepository.listAll();
-
-        MediaStats stats = new MediaStats();
-        stats.totalCount = allMedia.size();
-        stats.totalSize = allMedia.stream().mapToLong(m -> m.size).sum();
-
-        for (Media media : allMedia) {
-            stats.byType.put(media.type.name(),
-                    stats.byType.getOrDefault(media.type.name(), 0) + 1);
-        }
-
-        return stats;
+        return mediaStatsService.get();
     }
 
     private void validateFile(long fileSize, String mimeType, String originalName) {
+        if (mimeType == null) {
+            throw new BadRequestException("File type is missing");
+        }
+
         // Validate size
         if (fileSize > MAX_FILE_SIZE) {
             throw new BadRequestException(
@@ -141,21 +403,38 @@ public class MediaService {
         }
 
         // Validate MIME type
-        List<String> allAllowedTypes = List.of();
-        allAllowedTypes = Stream.concat(
-                Stream.concat(ALLOWED_IMAGE_TYPES.stream(), ALLOWED_VIDEO_TYPES.stream()),
-                ALLOWED_DOCUMENT_TYPES.stream()
-        ).collect(Collectors.toList());
-
-        if (!allAllowedTypes.contains(mimeType)) {
+        if (!ALLOWED_TYPES.containsKey(mimeType)) {
             throw new BadRequestException(
-                    "File type " + mimeType + " is not allowed. Allowed types: " + String.join(", ", allAllowedTypes)
+                    "File type " + mimeType + " is not allowed. Allowed types: " + ALLOWED_TYPES_DESCRIPTION
             );
         }
     }
 
+    /**
+     * Checks that the first bytes of the file match its declared (already allowed) type.
+     */
+    private void validateContent(String mimeType, byte[] header) {
+        String detected = ContentSniffer.detect(header, header.length);
+        if (detected == null || !ALLOWED_TYPES.get(mimeType).contains(detected)) {
+            throw new BadRequestException("File content does not match its declared type " + mimeType
+                    + (detected != null ? " (detected " + detected + ")" : ""));
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private SignedUrlDTO signUrl(Media media, int expirationSeconds) {
+        return storageService.generateSignedUrl(media.storageKey, expirationSeconds);
+    }
+
     private MediaDTO toDTO(Media media) {
-        return new MediaDTO(
+        MediaDTO dto = new MediaDTO(
                 media.id,
                 media.type,
                 media.url,
@@ -167,11 +446,30 @@ public class MediaService {
                 media.uploadedAt,
                 media.uploadedBy
         );
+        dto.placeholder = media.placeholder;
+        dto.variants = media.variants.stream()
+                .map(variant -> new MediaVariantDTO(variant.url, variant.width, variant.height, variant.size))
+                .collect(Collectors.toList());
+        return dto;
     }
 
     public static class MediaStats {
         public int totalCount;
         public long totalSize;
         public java.util.Map<String, Integer> byType = new java.util.HashMap<>();
+        public java.util.Map<String, MediaGroupStats> byMimeType = new java.util.TreeMap<>();
+        public java.util.Map<String, MediaGroupStats> byFolder = new java.util.TreeMap<>();
+        // Size distribution in bytes: p50, p90, p99 and max
+        public java.util.Map<String, Long> sizePercentiles = new java.util.LinkedHashMap<>();
+    }
+
+    public static class MediaGroupStats {
+        public long count;
+        public long totalSize;
+
+        void add(long count, long size) {
+            this.count += count;
+            this.totalSize += size;
+        }
     }
 }
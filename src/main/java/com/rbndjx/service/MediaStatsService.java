@@ -0,0 +1,98 @@
+package com.rbndjx.service;
+
+import com.rbndjx.domain.MediaRepository;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Media statistics computed by SQL aggregates and kept in memory until media are added or removed,
+ * so the stats endpoint answers from memory whatever the size of the library.
+ * The max age bounds staleness for changes made by other instances.
+ */
+@ApplicationScoped
+public class MediaStatsService {
+
+    // Grouping key for media stored at the bucket root or uploaded before folders were recorded
+    private static final String NO_FOLDER = "(none)";
+
+    @Inject
+    MediaRepository mediaRepository;
+
+    @Inject
+    TransactionHooks transactionHooks;
+
+    @ConfigProperty(name = "portfolio.media.stats.max-age")
+    Duration maxAge;
+
+    private final AtomicLong generation = new AtomicLong();
+    private volatile CachedStats cached;
+
+    public MediaService.MediaStats get() {
+        CachedStats current = cached;
+        if (current != null && System.nanoTime() - current.computedAt < maxAge.toNanos()) {
+            return current.stats;
+        }
+
+        long startGeneration = generation.get();
+        MediaService.MediaStats stats = compute();
+        // Skip caching if media changed while computing: the result may predate the change
+        if (generation.get() == startGeneration) {
+            cached = new CachedStats(stats, System.nanoTime());
+        }
+        return stats;
+    }
+
+    /**
+     * Drops the cached stats once the current transaction completes.
+     */
+    public void invalidate() {
+        transactionHooks.afterCompletion(() -> {
+            generation.incrementAndGet();
+            cached = null;
+        });
+    }
+
+    private MediaService.MediaStats compute() {
+        MediaService.MediaStats stats = new MediaService.MediaStats();
+
+        // One row per (type, mime type, folder) combination: a handful of rows whatever the library size
+        List<Object[]> groups = mediaRepository.aggregateByTypeMimeTypeAndFolder();
+        for (Object[] row : groups) {
+            String type = (String) row[0];
+            String mimeType = (String) row[1];
+            String folder = row[2] != null ? (String) row[2] : NO_FOLDER;
+            long count = ((Number) row[3]).longValue();
+            long size = ((Number) row[4]).longValue();
+
+            stats.totalCount += (int) count;
+            stats.totalSize += size;
+            stats.byType.merge(type, (int) count, Integer::sum);
+            stats.byMimeType.computeIfAbsent(mimeType, k -> new MediaService.MediaGroupStats()).add(count, size);
+            stats.byFolder.computeIfAbsent(folder, k -> new MediaService.MediaGroupStats()).add(count, size);
+        }
+
+        if (stats.totalCount > 0) {
+            Object[] percentiles = mediaRepository.sizePercentiles();
+            stats.sizePercentiles.put("p50", ((Number) percentiles[0]).longValue());
+            stats.sizePercentiles.put("p90", ((Number) percentiles[1]).longValue());
+            stats.sizePercentiles.put("p99", ((Number) percentiles[2]).longValue());
+            stats.sizePercentiles.put("max", ((Number) percentiles[3]).longValue());
+        }
+        return stats;
+    }
+
+    private static final class CachedStats {
+        final MediaService.MediaStats stats;
+        final long computedAt;
+
+        CachedStats(MediaService.MediaStats stats, long computedAt) {
+            this.stats = stats;
+            this.computedAt = computedAt;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+package com.rbndjx.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Holds the current {@link PortfolioSnapshot} and swaps it atomically (copy-on-write).
+ * Mutating service methods call {@link #invalidate()}; the next read rebuilds the snapshot
+ * from the database. Reads of a valid snapshot are a single volatile load.
+ */
+@ApplicationScoped
+public class PortfolioReadModel {
+
+    @Inject
+    ProjectService projectService;
+
+    @Inject
+    TechnoService technoService;
+
+    @Inject
+    TimelineEventService timelineEventService;
+
+    @Inject
+    TransactionHooks transactionHooks;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "portfolio.read-model.max-age")
+    Duration maxAge;
+
+    private final AtomicReference<PortfolioSnapshot> current = new AtomicReference<>();
+    // Bumped on every invalidation so a rebuild racing with a commit never publishes stale data
+    private final AtomicLong generation = new AtomicLong();
+    private final Object rebuildLock = new Object();
+
+    private Counter hits;
+    private Counter misses;
+    private Timer rebuildTimer;
+
+    @PostConstruct
+    void init() {
+        hits = Counter.builder("portfolio.read_model.lookups").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("portfolio.read_model.lookups").tag("result", "miss").register(meterRegistry);
+        rebuildTimer = Timer.builder("portfolio.read_model.rebuild").register(meterRegistry);
+    }
+
+    public PortfolioSnapshot snapshot() {
+        PortfolioSnapshot snapshot = peek();
+        if (snapshot != null) {
+            hits.increment();
+            return snapshot;
+        }
+        misses.increment();
+        return rebuild();
+    }
+
+    /**
+     * Current snapshot if it is still fresh, without ever triggering a rebuild.
+     */
+    public PortfolioSnapshot peek() {
+        PortfolioSnapshot snapshot = current.get();
+        if (snapshot != null && snapshot.ageNanos() > maxAge.toNanos()) {
+            // Other instances may have changed the data: expire instead of serving it forever
+            current.compareAndSet(snapshot, null);
+            return null;
+        }
+        return snapshot;
+    }
+
+    /**
+     * Drops the snapshot once the current transaction completes.
+     */
+    public void invalidate() {
+        transactionHooks.afterCompletion(this::evict);
+    }
+
+    private void evict() {
+        generation.incrementAndGet();
+        current.set(null);
+    }
+
+    private PortfolioSnapshot rebuild() {
+        synchronized (rebuildLock) {
+            PortfolioSnapshot snapshot = peek();
+            if (snapshot != null) {
+                return snapshot;
+            }
+
+            long startGeneration = generation.get();
+            PortfolioSnapshot built = rebuildTimer.record(() -> QuarkusTransaction.joiningExisting().call(() ->
+                    new PortfolioSnapshot(
+                            projectService.loadPublished(),
+                            technoService.loadAll(),
+                            timelineEventService.loadAll()
+                    )));
+
+            // Serve it to this caller anyway, but only keep it if nothing changed meanwhile
+            if (generation.get() == startGeneration) {
+                current.set(built);
+            }
+            return built;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.rbndjx.service;
+
+import com.rbndjx.domain.Project;
+import com.rbndjx.domain.TimelineEvent;
+import com.rbndjx.dto.ProjectDTO;
+import com.rbndjx.dto.TimelineEventDTO;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.rbndjx.service.FullTextIndex.field;
+
+/**
+ * Full-text indexes over published projects and timeline events. Built lazily from the read
+ * model snapshot, then kept up to date incrementally by the service mutation methods.
+ * Rebuilt after the read model max age, to pick up changes made on other instances.
+ */
+@ApplicationScoped
+public class PortfolioSearchIndex {
+
+    @Inject
+    PortfolioReadModel readModel;
+
+    @Inject
+    TransactionHooks transactionHooks;
+
+    @ConfigProperty(name = "portfolio.read-model.max-age")
+    Duration maxAge;
+
+    private static final class Indexes {
+        final FullTextIndex projects = new FullTextIndex();
+        final FullTextIndex timelineEvents = new FullTextIndex();
+        final long builtAtNanos = System.nanoTime();
+    }
+
+    private volatile Indexes current;
+    // Serializes builds with incremental updates, so no committed change is missed by a build
+    private final Object updateLock = new Object();
+
+    public List<String> searchProjects(String query, int limit) {
+        return indexes().projects.search(query, limit);
+    }
+
+    public List<String> searchTimelineEvents(String query, int limit) {
+        return indexes().timelineEvents.search(query, limit);
+    }
+
+    public void indexProject(Project project) {
+        String id = project.id;
+        boolean published = Boolean.TRUE.equals(project.isPublished);
+        String name = project.name;
+        String shortDescription = project.shortDescription;
+        String description = project.description;
+        update(indexes -> {
+            if (published) {
+                indexes.projects.put(id, projectFields(name, shortDescription, description));
+            } else {
+                indexes.projects.remove(id);
+            }
+        });
+    }
+
+    public void removeProject(String id) {
+        update(indexes -> indexes.projects.remove(id));
+    }
+
+    public void indexTimelineEvent(TimelineEvent event) {
+        String id = event.id;
+        String title = event.title;
+        String description = event.description;
+        update(indexes -> indexes.timelineEvents.put(id, timelineEventFields(title, description)));
+    }
+
+    public void removeTimelineEvent(String id) {
+        update(indexes -> indexes.timelineEvents.remove(id));
+    }
+
+    // Applies the change once the transaction commits
+    private void update(Consumer<Indexes> change) {
+        transactionHooks.afterCommit(() -> {
+            // Drop the snapshot before touching the indexes: a build that follows this update must
+            // read the committed data, not a snapshot from before the commit
+            readModel.invalidate();
+            synchronized (updateLock) {
+                // Not built yet: the next build reads the committed data anyway
+                if (current != null) {
+                    change.accept(current);
+                }
+            }
+        });
+    }
+
+    private Indexes indexes() {
+        Indexes indexes = current;
+        if (indexes != null && System.nanoTime() - indexes.builtAtNanos <= maxAge.toNanos()) {
+            return indexes;
+        }
+        synchronized (updateLock) {
+            if (current != indexes) {
+                return current;
+            }
+            Indexes built = new Indexes();
+            PortfolioSnapshot snapshot = readModel.snapshot();
+            for (ProjectDTO project : snapshot.publishedProjects()) {
+                built.projects.put(project.id, projectFields(project.name, project.shortDescription, project.description));
+            }
+            for (TimelineEventDTO event : snapshot.timelineEvents()) {
+                built.timelineEvents.put(event.id, timelineEventFields(event.title, event.description));
+            }
+            current = built;
+            return built;
+        }
+    }
+
+    private static FullTextIndex.Field[] projectFields(String name, String shortDescription, String description) {
+        return new FullTextIndex.Field[] {
+                field(name, 3),
+                field(shortDescription, 2),
+                field(description, 1)
+        };
+    }
+
+    private static FullTextIndex.Field[] timelineEventFields(String title, String description) {
+        return new FullTextIndex.Field[] {
+                field(title, 3),
+                field(description, 1)
+        };
+    }
+}
@@ -0,0 +1,157 @@
+package com.rbndjx.service;
+
+import com.rbndjx.domain.TimelineEventType;
+import com.rbndjx.dto.PageDTO;
+import com.rbndjx.dto.ProjectDTO;
+import com.rbndjx.dto.TechnoDTO;
+import com.rbndjx.dto.TimelineEventDTO;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Immutable view of everything the public portfolio shows: published projects, technologies
+ * and timeline events. A snapshot is never modified once built; {@link PortfolioReadModel}
+ * replaces it as a whole, so readers need no locking.
+ */
+public final class PortfolioSnapshot {
+
+    // Bounds memoized bodies: cursors make the key space of paginated listings open-ended, so the
+    // least recently used bodies are dropped rather than refusing new ones
+    private static final int MAX_BODIES = 256;
+
+    private final long builtAtNanos = System.nanoTime();
+
+    // Published projects, ordered by (createdAt DESC, id DESC) like the paginated listing
+    private final List<ProjectDTO> publishedProjects;
+    private final Map<String, ProjectDTO> projectsById;
+    private final List<TechnoDTO> technologies;
+    private final Map<String, TechnoDTO> technologiesById;
+    // Timeline events, ordered by timestamp DESC
+    private final List<TimelineEventDTO> timelineEvents;
+    private final Map<String, TimelineEventDTO> timelineEventsById;
+    private final Map<TimelineEventType, List<TimelineEventDTO>> timelineEventsByType;
+    // Serialized responses derived from this snapshot, memoized by JsonResponseCache, in access order
+    private final Map<String, SerializedBody> bodies = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, SerializedBody> eldest) {
+            return size() > MAX_BODIES;
+        }
+    };
+
+    public PortfolioSnapshot(List<ProjectDTO> publishedProjects, List<TechnoDTO> technologies,
+                             List<TimelineEventDTO> timelineEvents) {
+        this.publishedProjects = List.copyOf(publishedProjects);
+        this.projectsById = indexById(publishedProjects, p -> p.id);
+        this.technologies = List.copyOf(technologies);
+        this.technologiesById = indexById(technologies, t -> t.id);
+        this.timelineEvents = List.copyOf(timelineEvents);
+        this.timelineEventsById = indexById(timelineEvents, e -> e.id);
+
+        Map<TimelineEventType, List<TimelineEventDTO>> byType = new EnumMap<>(TimelineEventType.class);
+        for (TimelineEventType type : TimelineEventType.values()) {
+            byType.put(type, timelineEvents.stream().filter(e -> e.type == type).toList());
+        }
+        this.timelineEventsByType = byType;
+    }
+
+    public long ageNanos() {
+        return System.nanoTime() - builtAtNanos;
+    }
+
+    public List<ProjectDTO> publishedProjects() {
+        return publishedProjects;
+    }
+
+    public ProjectDTO project(String id) {
+        return projectsById.get(id);
+    }
+
+    public List<TechnoDTO> technologies() {
+        return technologies;
+    }
+
+    public TechnoDTO technology(String id) {
+        return technologiesById.get(id);
+    }
+
+    public List<TimelineEventDTO> timelineEvents() {
+        return timelineEvents;
+    }
+
+    public List<TimelineEventDTO> timelineEvents(TimelineEventType type) {
+        return timelineEventsByType.getOrDefault(type, List.of());
+    }
+
+    public TimelineEventDTO timelineEvent(String id) {
+        return timelineEventsById.get(id);
+    }
+
+    public SerializedBody body(String key) {
+        synchronized (bodies) {
+            return bodies.get(key);
+        }
+    }
+
+    public void putBody(String key, SerializedBody body) {
+        synchronized (bodies) {
+            bodies.putIfAbsent(key, body);
+        }
+    }
+
+    /**
+     * Keyset page over published projects, same ordering and cursor as the database listing.
+     * When {@code ids} is not null, only those projects are considered.
+     */
+    public PageDTO<ProjectDTO> projectPage(PageCursor after, int pageSize, Boolean featured, Set<String> ids) {
+        List<ProjectDTO> items = new ArrayList<>(pageSize);
+        String nextCursor = null;
+        for (int i = firstIndexAfter(after); i < publishedProjects.size(); i++) {
+            ProjectDTO project = publishedProjects.get(i);
+            if (featured != null && !featured.equals(project.featured)) {
+                continue;
+            }
+            if (ids != null && !ids.contains(project.id)) {
+                continue;
+            }
+            if (items.size() == pageSize) {
+                ProjectDTO last = items.get(pageSize - 1);
+                nextCursor = new PageCursor(last.createdAt, last.id).encode();
+                break;
+            }
+            items.add(project);
+        }
+        return new PageDTO<>(items, nextCursor);
+    }
+
+    private int firstIndexAfter(PageCursor after) {
+        if (after == null) {
+            return 0;
+        }
+        // Binary search for the first project strictly after the cursor position
+        int low = 0;
+        int high = publishedProjects.size();
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            ProjectDTO project = publishedProjects.get(mid);
+            int byDate = project.createdAt.compareTo(after.timestamp);
+            boolean isAfter = byDate < 0 || (byDate == 0 && project.id.compareTo(after.id) < 0);
+            if (isAfter) {
+                high = mid;
+            } else {
+                low = mid + 1;
+            }
+        }
+        return low;
+    }
+
+    private static <T> Map<String, T> indexById(List<T> items, Function<T, String> id) {
+        return Map.copyOf(items.stream().collect(Collectors.toMap(id, Function.identity(), (a, b) -> a)));
+    }
+}
@@ -5,14 +5,26 @@ import com.rbndjx.dto.*;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class ProjectService {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
     @Inject
     ProjectRepository projectRepository;
 
@@ -22,74 +34,277 @@ public class ProjectService {
     @Inject
     TechnoRepository technoRepository;
 
-    public List<ProjectDTO> listAll() {
-        return projectRepository.listAll()
-                .stream()
+    @Inject
+    ProjectViewCounter viewCounter;
+
+    @Inject
+    PortfolioReadModel readModel;
+
+    @Inject
+    PortfolioSearchIndex searchIndex;
+
+    @Inject
+    TechStackIndex techStackIndex;
+
+    @Inject
+    Validator validator;
+
+    @Inject
+    MediaStatsService mediaStatsService;
+
+    @Inject
+    StorageDeletionService storageDeletionService;
+
+    @Inject
+    TechnoService technoService;
+
+    public PageDTO<ProjectDTO> listPage(String cursor, int limit, Boolean isPublished, Boolean featured,
+                                        List<String> technologies, boolean matchAllTechnologies) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = PageCursor.clampPageSize(limit);
+
+        Set<String> ids = technologyFilter(technologies, matchAllTechnologies);
+        if (ids != null && ids.isEmpty()) {
+            return new PageDTO<>(new ArrayList<>(), null);
+        }
+
+        // Public listing: served from the in-memory read model, with the view counts of the last
+        // flush. Its pages are memoized as JSON on the snapshot, which each flush replaces.
+        if (Boolean.TRUE.equals(isPublished)) {
+            return readModel.snapshot().projectPage(after, pageSize, featured, ids);
+        }
+
+        // Fetch one extra row to know whether a next page exists
+        List<Project> projects = projectRepository.findPage(
+                after != null ? after.timestamp : null,
+                after != null ? after.id : null,
+                isPublished,
+                featured,
+                ids,
+                pageSize + 1
+        );
+
+        String nextCursor = null;
+        if (projects.size() > pageSize) {
+            projects = projects.subList(0, pageSize);
+            Project last = projects.get(pageSize - 1);
+            nextCursor = new PageCursor(last.createdAt, last.id).encode();
+        }
+        projectRepository.fetchDetails(projects);
+
+        List<ProjectDTO> items = projects.stream()
                 .map(this::toDTO)
                 .collect(Collectors.toList());
+        return new PageDTO<>(items, nextCursor);
+    }
+
+    /**
+     * Same listing as {@link #listPage} in summary form, built from a projection query plus one
+     * query for cover images and one for technology names.
+     */
+    public PageDTO<ProjectSummaryDTO> listSummaryPage(String cursor, int limit, Boolean isPublished, Boolean featured,
+                                                      List<String> technologies, boolean matchAllTechnologies) {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = PageCursor.clampPageSize(limit);
+
+        Set<String> ids = technologyFilter(technologies, matchAllTechnologies);
+        if (ids != null && ids.isEmpty()) {
+            return new PageDTO<>(new ArrayList<>(), null);
+        }
+
+        List<ProjectSummaryDTO> summaries = projectRepository.findSummaryPage(
+                after != null ? after.timestamp : null,
+                after != null ? after.id : null,
+                isPublished,
+                featured,
+                ids,
+                pageSize + 1
+        );
+
+        String nextCursor = null;
+        if (summaries.size() > pageSize) {
+            summaries = new ArrayList<>(summaries.subList(0, pageSize));
+            ProjectSummaryDTO last = summaries.get(pageSize - 1);
+            nextCursor = new PageCursor(last.createdAt, last.id).encode();
+        }
+        if (summaries.isEmpty()) {
+            return new PageDTO<>(summaries, null);
+        }
+
+        Map<String, ProjectSummaryDTO> byId = new HashMap<>();
+        for (ProjectSummaryDTO summary : summaries) {
+            summary.views += (int) viewCounter.pendingViews(summary.id);
+            byId.put(summary.id, summary);
+        }
+        for (Object[] cover : mediaRepository.findCoverUrls(byId.keySet())) {
+            byId.get((String) cover[0]).coverImageUrl = (String) cover[1];
+        }
+        for (Object[] technology : projectRepository.findTechnologyNames(byId.keySet())) {
+            byId.get((String) technology[0]).technologies.add((String) technology[1]);
+        }
+        return new PageDTO<>(summaries, nextCursor);
     }
 
     public ProjectDTO getById(String id) {
-        Project project = projectRepository.findById(id);
+        ProjectDTO published = readModel.snapshot().project(id);
+        if (published != null) {
+            return withPendingViews(published);
+        }
+
+        // Unpublished projects are not part of the read model
+        Project project = projectRepository.findByIdWithDetails(id);
         if (project == null) {
             throw new NotFoundException("Project not found");
         }
         return toDTO(project);
     }
 
+    public List<ProjectDTO> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query must not be empty");
+        }
+        PortfolioSnapshot snapshot = readModel.snapshot();
+        return searchIndex.searchProjects(query, PageCursor.clampPageSize(limit))
+                .stream()
+                .map(snapshot::project)
+                .filter(Objects::nonNull)
+                .map(this::withPendingViews)
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Published projects straight from the database, used to build the read model snapshot.
+     * View counts are the stored ones: pending views are merged at read time.
+     */
+    public List<ProjectDTO> loadPublished() {
+        List<Project> projects = projectRepository.list("isPublished = true ORDER BY createdAt DESC, id DESC");
+        projectRepository.fetchDetails(projects);
+        return projects.stream()
+                .map(this::toStoredDTO)
+                .collect(Collectors.toList());
+    }
+
+    public void recordView(String id) {
+        viewCounter.record(id);
+    }
+
     @Transactional
     public ProjectDTO create(CreateProjectDTO dto) {
-        Project project = new Project(
-                dto.name,
-                dto.description,
-                dto.shortDescription,
-                dto.repositoryLink,
-                dto.projectLink,
-                dto.isPublished,
-                dto.featured
-        );
+        Project project = newProject(dto);
 
         // Persister et flusher pour obtenir l'ID immédiatement
         projectRepository.persistAndFlush(project);
 
         // Handle media IDs - maintenant que le projet est persisté
         if (dto.media != null && !dto.media.isEmpty()) {
+            Map<String, Media> media = resolveMedia(dto.media);
             for (String mediaId : dto.media) {
-                Media media = mediaRepository.findById(mediaId);
-                if (media == null) {
+                if (!media.containsKey(mediaId)) {
                     throw new NotFoundException("Media with ID " + mediaId + " not found");
                 }
-                project.addMedia(media);
+                project.addMedia(media.get(mediaId));
             }
         }
 
         // Handle technologies
         if (dto.techStack != null && !dto.techStack.isEmpty()) {
+            Map<String, Techno> technologies = resolveTechnologies(dto.techStack);
             for (SimpleTechnoDTO techDto : dto.techStack) {
-                Techno techno = technoRepository.findByTechnology(techDto.technology);
-                if (techno == null) {
-                    techno = new Techno(techDto.technology, techDto.iconUrl);
-                    technoRepository.persist(techno);
-                }
-                project.addTechno(techno);
+                project.addTechno(technologies.get(Techno.normalize(techDto.technology)));
             }
         }
 
+        onProjectCreated(project);
+        readModel.invalidate();
         return toDTO(project);
     }
 
+    /**
+     * Creates many projects in one transaction. Media and technologies referenced by the whole
+     * batch are resolved with one IN query each, and inserts are sent as JDBC batches.
+     * Invalid items are reported and skipped; valid ones are created.
+     */
+    @Transactional
+    public BatchCreateResultDTO createBatch(List<CreateProjectDTO> dtos) {
+        if (dtos == null || dtos.isEmpty()) {
+            throw new BadRequestException("Batch must contain at least one project");
+        }
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new BadRequestException("Batch must not contain more than " + MAX_BATCH_SIZE + " projects");
+        }
+
+        Set<String> mediaIds = new HashSet<>();
+        for (CreateProjectDTO dto : dtos) {
+            if (dto != null && dto.media != null) {
+                mediaIds.addAll(dto.media);
+            }
+        }
+        Map<String, Media> media = resolveMedia(mediaIds);
+
+        // Validate every item before touching the database
+        List<List<String>> errors = new ArrayList<>();
+        Set<String> claimedMedia = new HashSet<>();
+        List<SimpleTechnoDTO> technologies = new ArrayList<>();
+        for (CreateProjectDTO dto : dtos) {
+            List<String> itemErrors = validateBatchItem(dto, media, claimedMedia);
+            if (itemErrors.isEmpty() && dto.techStack != null) {
+                technologies.addAll(dto.techStack);
+            }
+            errors.add(itemErrors);
+        }
+        Map<String, Techno> resolvedTechnologies = resolveTechnologies(technologies);
+
+        BatchCreateResultDTO result = new BatchCreateResultDTO();
+        List<Project> created = new ArrayList<>();
+        for (int i = 0; i < dtos.size(); i++) {
+            if (!errors.get(i).isEmpty()) {
+                result.items.add(new BatchCreateResultDTO.ItemResult(i, "FAILED", null, errors.get(i)));
+                result.failed++;
+                continue;
+            }
+
+            CreateProjectDTO dto = dtos.get(i);
+            Project project = newProject(dto);
+            projectRepository.persist(project);
+            if (dto.media != null) {
+                dto.media.forEach(mediaId -> project.addMedia(media.get(mediaId)));
+            }
+            if (dto.techStack != null) {
+                dto.techStack.forEach(techDto -> project.addTechno(resolvedTechnologies.get(Techno.normalize(techDto.technology))));
+            }
+            created.add(project);
+            result.items.add(new BatchCreateResultDTO.ItemResult(i, "CREATED", project.id, List.of()));
+            result.created++;
+        }
+
+        created.forEach(this::onProjectCreated);
+        if (!created.isEmpty()) {
+            readModel.invalidate();
+        }
+        return result;
+    }
+
     @Transactional
     public void delete(String id) {
-        Project project = projectRepository.findById(id);
+        // Media rows are cascade-deleted, so load them with the project instead of lazily
+        Project project = projectRepository.findByIdWithMedia(id);
         if (project == null) {
             throw new NotFoundException("Project not found");
         }
+        storageDeletionService.enqueue(project.media);
         projectRepository.delete(project);
+        if (!project.media.isEmpty()) {
+            mediaStatsService.invalidate();
+        }
+        viewCounter.forget(id);
+        searchIndex.removeProject(id);
+        techStackIndex.removeProject(id);
+        readModel.invalidate();
     }
 
     @Transactional
     public ProjectDTO addMediaById(String projectId, String mediaId) {
-        Project project = projectRepository.findById(projectId);
+        Project project = projectRepository.findByIdWithDetails(projectId);
         if (project == null) {
             throw new NotFoundException("Project not found");
         }
@@ -108,12 +323,13 @@ public class ProjectService {
 
         project.addMedia(media);
         projectRepository.persist(project);
+        readModel.invalidate();
         return toDTO(project);
     }
 
     @Transactional
     public ProjectDTO removeMedia(String projectId, String mediaId) {
-        Project project = projectRepository.findById(projectId);
+        Project project = projectRepository.findByIdWithDetails(projectId);
         if (project == null) {
             throw new NotFoundException("Project not found");
         }
@@ -123,34 +339,42 @@ public class ProjectService {
                 .findFirst()
                 .orElseThrow(() -> new NotFoundException("Media not found in project"));
 
+        storageDeletionService.enqueue(media);
         project.removeMedia(media);
         mediaRepository.delete(media);
         projectRepository.persist(project);
+        mediaStatsService.invalidate();
+        readModel.invalidate();
         return toDTO(project);
     }
 
     @Transactional
     public ProjectDTO addTechnology(String projectId, TechnoDTO technoDTO) {
-        Project project = projectRepository.findById(projectId);
+        Project project = projectRepository.findByIdWithDetails(projectId);
         if (project == null) {
             throw new NotFoundException("Project not found");
         }
 
-        Techno techno = technoRepository.findById(technoDTO.id);
+        Techno techno = technoDTO.id != null ? technoRepository.findById(technoDTO.id) : null;
         if (techno == null) {
-            techno = new Techno(technoDTO.technology, technoDTO.iconUrl);
-            techno.id = technoDTO.id;
-            technoRepository.persist(techno);
+            // Unknown id: reuse the technology of the same name if there is one
+            Techno candidate = new Techno(technoDTO.technology, technoDTO.iconUrl);
+            if (technoDTO.id != null) {
+                candidate.id = technoDTO.id;
+            }
+            techno = technoService.resolveOrCreate(List.of(candidate)).get(candidate.normalizedTechnology);
         }
 
         project.addTechno(techno);
         projectRepository.persist(project);
+        techStackIndex.setProjectTechnologies(project.id, project.techStack);
+        readModel.invalidate();
         return toDTO(project);
     }
 
     @Transactional
     public ProjectDTO removeTechnology(String projectId, String technoId) {
-        Project project = projectRepository.findById(projectId);
+        Project project = projectRepository.findByIdWithDetails(projectId);
         if (project == null) {
             throw new NotFoundException("Project not found");
         }
@@ -162,10 +386,121 @@ public class ProjectService {
 
         project.removeTechno(techno);
         projectRepository.persist(project);
+        techStackIndex.setProjectTechnologies(project.id, project.techStack);
+        readModel.invalidate();
         return toDTO(project);
     }
 
+    private List<String> validateBatchItem(CreateProjectDTO dto, Map<String, Media> media, Set<String> claimedMedia) {
+        List<String> errors = new ArrayList<>();
+        if (dto == null) {
+            errors.add("Project must not be null");
+            return errors;
+        }
+        for (ConstraintViolation<CreateProjectDTO> violation : validator.validate(dto)) {
+            errors.add(violation.getPropertyPath() + ": " + violation.getMessage());
+        }
+        if (dto.media != null) {
+            for (String mediaId : dto.media) {
+                if (!media.containsKey(mediaId)) {
+                    errors.add("Media with ID " + mediaId + " not found");
+                } else if (!claimedMedia.add(mediaId)) {
+                    errors.add("Media with ID " + mediaId + " is used by another project of the batch");
+                }
+            }
+        }
+        if (dto.techStack != null) {
+            for (SimpleTechnoDTO techDto : dto.techStack) {
+                if (techDto == null || techDto.technology == null || techDto.technology.isBlank()) {
+                    errors.add("Technology name must not be blank");
+                }
+            }
+        }
+        return errors;
+    }
+
+    private Project newProject(CreateProjectDTO dto) {
+        return new Project(
+                dto.name,
+                dto.description,
+                dto.shortDescription,
+                dto.repositoryLink,
+                dto.projectLink,
+                dto.isPublished,
+                dto.featured
+        );
+    }
+
+    /**
+     * Loads the given media with a single IN query, keyed by ID. Missing IDs are absent from the map.
+     */
+    private Map<String, Media> resolveMedia(Collection<String> mediaIds) {
+        if (mediaIds.isEmpty()) {
+            return Map.of();
+        }
+        return mediaRepository.list("id IN ?1", mediaIds)
+                .stream()
+                .collect(Collectors.toMap(m -> m.id, m -> m));
+    }
+
+    /**
+     * Finds or creates the named technologies, keyed by normalized name.
+     */
+    private Map<String, Techno> resolveTechnologies(Collection<SimpleTechnoDTO> technologies) {
+        if (technologies.isEmpty()) {
+            return Map.of();
+        }
+        return technoService.resolveOrCreate(technologies.stream()
+                .map(techDto -> new Techno(techDto.technology, techDto.iconUrl))
+                .toList());
+    }
+
+    private void onProjectCreated(Project project) {
+        techStackIndex.setProjectTechnologies(project.id, project.techStack);
+        searchIndex.indexProject(project);
+    }
+
+    /**
+     * Projects matching the technology filter, resolved by bitmap intersection/union instead of
+     * joins; null when there is no filter.
+     */
+    private Set<String> technologyFilter(List<String> technologies, boolean matchAll) {
+        if (technologies == null || technologies.isEmpty()) {
+            return null;
+        }
+        return techStackIndex.projectsUsing(technologies, matchAll);
+    }
+
     private ProjectDTO toDTO(Project project) {
+        ProjectDTO dto = toStoredDTO(project);
+        dto.views += (int) viewCounter.pendingViews(project.id);
+        return dto;
+    }
+
+    private ProjectDTO withPendingViews(ProjectDTO stored) {
+        long pending = viewCounter.pendingViews(stored.id);
+        if (pending == 0) {
+            return stored;
+        }
+        // Snapshot DTOs are shared between requests: copy instead of mutating
+        ProjectDTO dto = new ProjectDTO(
+                stored.id,
+                stored.name,
+                stored.description,
+                stored.shortDescription,
+                stored.isPublished,
+                stored.featured,
+                stored.views + (int) pending,
+                stored.repositoryLink,
+                stored.projectLink,
+                stored.createdAt
+        );
+        dto.media = stored.media;
+        dto.techStack = stored.techStack;
+        return dto;
+    }
+
+    private ProjectDTO toStoredDTO(Project project) {
         ProjectDTO dto = new ProjectDTO(
                 project.id,
                 project.name,
@@ -191,7 +526,7 @@ public class ProjectService {
     }
 
     private MediaDTO mediaToDTO(Media media) {
-        return new MediaDTO(
+        MediaDTO dto = new MediaDTO(
                 media.id,
                 media.type,
                 media.url,
@@ -203,6 +538,11 @@ public class ProjectService {
                 media.uploadedAt,
                 media.uploadedBy
         );
+        dto.placeholder = media.placeholder;
+        dto.variants = media.variants.stream()
+                .map(variant -> new MediaVariantDTO(variant.url, variant.width, variant.height, variant.size))
+                .collect(Collectors.toList());
+        return dto;
     }
 
     private TechnoDTO technoToDTO(Techno techno) {
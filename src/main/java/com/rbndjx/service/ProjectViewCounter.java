@@ -0,0 +1,207 @@
+package com.rbndjx.service;
+
+import com.rbndjx.domain.ProjectRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind counter for project views. Views are accumulated in memory per project and
+ * written to the project table in a single statement, so recording a view rarely costs a
+ * database write.
+ * <p>
+ * A flush runs on a schedule and at shutdown, but neither is guaranteed on Lambda, where a
+ * frozen instance runs no timers and may be reclaimed without a shutdown event. Recording a view
+ * therefore also flushes, on the request thread, once the pending views reach the flush threshold
+ * or the oldest of them reaches the flush max age. What can still be lost is what an instance
+ * holds when it is reclaimed: fewer views than the threshold, recorded within the max age before
+ * its last request.
+ */
+@ApplicationScoped
+public class ProjectViewCounter {
+
+    private static final Logger LOGGER = Logger.getLogger(ProjectViewCounter.class);
+
+    @Inject
+    ProjectRepository projectRepository;
+
+    @Inject
+    PortfolioReadModel readModel;
+
+    @Inject
+    TransactionHooks transactionHooks;
+
+    @ConfigProperty(name = "portfolio.views.unknown-ids.max-size")
+    int unknownIdsMaxSize;
+
+    @ConfigProperty(name = "portfolio.read-model.max-age")
+    Duration maxAge;
+
+    @ConfigProperty(name = "portfolio.views.flush-threshold")
+    long flushThreshold;
+
+    @ConfigProperty(name = "portfolio.views.flush-max-age")
+    Duration flushMaxAge;
+
+    // Counters are kept once created: removing one could drop increments racing with the removal
+    private final ConcurrentHashMap<String, LongAdder> pending = new ConcurrentHashMap<>();
+
+    // Views recorded and not flushed yet, and the System.nanoTime() of the oldest of them, 0 if none
+    private final LongAdder pendingTotal = new LongAdder();
+    private final AtomicLong oldestPending = new AtomicLong();
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    // Ids found missing from the database, with the System.nanoTime() of the lookup, oldest first
+    private final Map<String, Long> unknownIds = new LinkedHashMap<>() {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Long> eldest) {
+            return size() > unknownIdsMaxSize;
+        }
+    };
+
+    public void record(String projectId) {
+        LongAdder counter = pending.get(projectId);
+        if (counter == null) {
+            // First view since startup: only track projects that exist
+            if (!exists(projectId)) {
+                throw new NotFoundException("Project not found");
+            }
+            counter = pending.computeIfAbsent(projectId, id -> new LongAdder());
+        }
+        counter.increment();
+        pendingTotal.increment();
+        oldestPending.compareAndSet(0, System.nanoTime());
+        flushIfDue();
+    }
+
+    /**
+     * Flushes when enough views are pending or the oldest has waited too long. A flush already
+     * running on another thread is left to finish instead of being waited for.
+     */
+    private void flushIfDue() {
+        long oldest = oldestPending.get();
+        boolean due = pendingTotal.sum() >= flushThreshold
+                || (oldest != 0 && System.nanoTime() - oldest >= flushMaxAge.toNanos());
+        if (due && flushLock.tryLock()) {
+            try {
+                flushPending();
+            } finally {
+                flushLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Published projects are answered by the read model snapshot, and ids recently found missing
+     * by a bounded negative cache, so views of unknown ids do not each cost a query.
+     * Negative entries expire with the read model, to pick up projects created on other instances.
+     */
+    private boolean exists(String projectId) {
+        if (readModel.snapshot().project(projectId) != null) {
+            return true;
+        }
+        long now = System.nanoTime();
+        synchronized (unknownIds) {
+            Long checkedAt = unknownIds.get(projectId);
+            if (checkedAt != null && now - checkedAt <= maxAge.toNanos()) {
+                return false;
+            }
+        }
+        if (projectRepository.count("id", projectId) > 0) {
+            return true;
+        }
+        synchronized (unknownIds) {
+            // Re-inserted so the refreshed entry moves to the young end
+            unknownIds.remove(projectId);
+            unknownIds.put(projectId, now);
+        }
+        return false;
+    }
+
+    /**
+     * Views recorded for the project that are not written to the database yet.
+     */
+    public long pendingViews(String projectId) {
+        LongAdder counter = pending.get(projectId);
+        return counter != null ? counter.sum() : 0;
+    }
+
+    /**
+     * Drops the pending views of a deleted project once the deletion commits, so a rolled back
+     * deletion keeps them.
+     */
+    public void forget(String projectId) {
+        transactionHooks.afterCommit(() -> {
+            LongAdder counter = pending.remove(projectId);
+            if (counter != null) {
+                pendingTotal.add(-counter.sum());
+            }
+        });
+    }
+
+    @Scheduled(every = "{portfolio.views.flush-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledFlush() {
+        flush();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    public void flush() {
+        flushLock.lock();
+        try {
+            flushPending();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void flushPending() {
+        // Views recorded from here on restart the age tracking, even if this flush sweeps them
+        long oldest = oldestPending.getAndSet(0);
+        Map<String, Long> deltas = new HashMap<>();
+        pending.forEach((id, counter) -> {
+            long delta = counter.sumThenReset();
+            if (delta != 0) {
+                deltas.put(id, delta);
+            }
+        });
+        if (deltas.isEmpty()) {
+            return;
+        }
+        long total = deltas.values().stream().mapToLong(Long::longValue).sum();
+        pendingTotal.add(-total);
+
+        try {
+            QuarkusTransaction.requiringNew().run(() -> projectRepository.incrementViews(deltas));
+            // The snapshot holds stored view counts: let the next read pick up the flushed ones
+            readModel.invalidate();
+            LOGGER.debugf("Flushed views for %d projects", deltas.size());
+        } catch (RuntimeException e) {
+            // Give the counts back so the next flush retries them
+            deltas.forEach((id, delta) -> pending.computeIfAbsent(id, k -> new LongAdder()).add(delta));
+            pendingTotal.add(total);
+            if (oldest != 0) {
+                oldestPending.accumulateAndGet(oldest, (current, given) -> current == 0 ? given : Math.min(current, given));
+            }
+            LOGGER.error("Failed to flush project views, will retry", e);
+        }
+    }
+}
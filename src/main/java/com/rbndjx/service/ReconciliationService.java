@@ -0,0 +1,205 @@
+package com.rbndjx.service;
+
+import com.rbndjx.domain.Media;
+import com.rbndjx.domain.MediaRepository;
+import com.rbndjx.domain.PendingUploadRepository;
+import com.rbndjx.domain.StorageDeletionRepository;
+import com.rbndjx.dto.ReconciliationReportDTO;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.ClientErrorException;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Finds storage objects referenced by no media and media attached to no project.
+ * The bucket is streamed page by page and each page is checked with a single IN query,
+ * so memory stays bounded by the page size whatever the bucket size. Only orphans older
+ * than the grace period are considered, which leaves in-flight uploads and media waiting
+ * for their project alone. In enforce mode orphan objects go through the deletion outbox.
+ */
+@ApplicationScoped
+public class ReconciliationService {
+
+    private static final Logger LOGGER = Logger.getLogger(ReconciliationService.class);
+
+    public static final String DRY_RUN = "dry-run";
+    public static final String ENFORCE = "enforce";
+
+    private static final int SAMPLE_SIZE = 100;
+    private static final int MEDIA_PAGE_SIZE = 500;
+
+    @Inject
+    StorageService storageService;
+
+    @Inject
+    MediaRepository mediaRepository;
+
+    @Inject
+    StorageDeletionRepository storageDeletionRepository;
+
+    @Inject
+    PendingUploadRepository pendingUploadRepository;
+
+    @Inject
+    StorageDeletionService storageDeletionService;
+
+    @Inject
+    MediaStatsService mediaStatsService;
+
+    @Inject
+    PortfolioReadModel readModel;
+
+    @ConfigProperty(name = "portfolio.reconciliation.mode")
+    String scheduledMode;
+
+    @ConfigProperty(name = "portfolio.reconciliation.grace-period")
+    Duration gracePeriod;
+
+    @ConfigProperty(name = "portfolio.reconciliation.delete-unattached-media")
+    boolean deleteUnattachedMedia;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Scheduled(cron = "{portfolio.reconciliation.cron}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRun() {
+        ReconciliationReportDTO report = run(scheduledMode);
+        LOGGER.infof("Reconciliation (%s): %d objects scanned, %d orphan objects (%d bytes), %d unattached media, "
+                        + "%d objects and %d media deleted in %d ms",
+                report.mode, report.scannedObjects, report.orphanObjects, report.orphanBytes, report.unattachedMedia,
+                report.deletedObjects, report.deletedMedia, report.durationMs);
+    }
+
+    public ReconciliationReportDTO run(String mode) {
+        if (!DRY_RUN.equals(mode) && !ENFORCE.equals(mode)) {
+            throw new BadRequestException("mode must be '" + DRY_RUN + "' or '" + ENFORCE + "'");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new ClientErrorException("A reconciliation is already running", Response.Status.CONFLICT);
+        }
+        try {
+            long start = System.nanoTime();
+            ReconciliationReportDTO report = new ReconciliationReportDTO();
+            report.mode = mode;
+            report.cutoff = Instant.now().minus(gracePeriod);
+
+            if (ENFORCE.equals(mode)) {
+                purgeExpiredUploads(report);
+            }
+            reconcileObjects(report, ENFORCE.equals(mode));
+            reconcileUnattachedMedia(report, ENFORCE.equals(mode) && deleteUnattachedMedia);
+
+            report.durationMs = (System.nanoTime() - start) / 1_000_000;
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Forgets direct uploads never confirmed; their objects, if any, are then found orphaned.
+     */
+    private void purgeExpiredUploads(ReconciliationReportDTO report) {
+        LocalDateTime cutoff = LocalDateTime.ofInstant(report.cutoff, ZoneId.systemDefault());
+        long purged = QuarkusTransaction.requiringNew().call(() -> pendingUploadRepository.deleteExpiredBefore(cutoff));
+        if (purged > 0) {
+            LOGGER.infof("Purged %d expired pending uploads", purged);
+        }
+    }
+
+    private void reconcileObjects(ReconciliationReportDTO report, boolean enforce) {
+        for (List<StoredObject> page : storageService.listObjectPages()) {
+            report.scannedObjects += page.size();
+
+            // Objects still within the grace period may belong to an upload in progress
+            Map<String, StoredObject> candidates = new HashMap<>();
+            for (StoredObject object : page) {
+                if (object.lastModified.isBefore(report.cutoff)) {
+                    candidates.put(object.key, object);
+                }
+            }
+            if (candidates.isEmpty()) {
+                continue;
+            }
+
+            List<String> orphanKeys = QuarkusTransaction.requiringNew().call(() -> {
+                Set<String> referenced = mediaRepository.findReferencedKeys(candidates.keySet());
+                List<String> keys = new ArrayList<>();
+                for (String key : candidates.keySet()) {
+                    if (!referenced.contains(key)) {
+                        keys.add(key);
+                    }
+                }
+                if (keys.isEmpty()) {
+                    return keys;
+                }
+                // Already queued objects are not orphans, just not deleted yet
+                keys.removeAll(storageDeletionRepository.findQueuedKeys(keys));
+                if (enforce) {
+                    keys.forEach(storageDeletionService::enqueueKey);
+                }
+                return keys;
+            });
+
+            for (String key : orphanKeys) {
+                report.orphanObjects++;
+                report.orphanBytes += candidates.get(key).size;
+                if (report.orphanObjectSample.size() < SAMPLE_SIZE) {
+                    report.orphanObjectSample.add(key);
+                }
+            }
+            if (enforce) {
+                report.deletedObjects += orphanKeys.size();
+            }
+        }
+    }
+
+    private void reconcileUnattachedMedia(ReconciliationReportDTO report, boolean delete) {
+        LocalDateTime cutoff = LocalDateTime.ofInstant(report.cutoff, ZoneId.systemDefault());
+        report.unattachedMedia = QuarkusTransaction.requiringNew().call(() ->
+                mediaRepository.count("project IS NULL AND uploadedAt < ?1", cutoff));
+        report.unattachedMediaSample.addAll(QuarkusTransaction.requiringNew().call(() ->
+                mediaRepository.find("project IS NULL AND uploadedAt < ?1 ORDER BY uploadedAt", cutoff)
+                        .page(0, SAMPLE_SIZE)
+                        .list()
+                        .stream()
+                        .map(media -> media.id)
+                        .toList()));
+        if (!delete || report.unattachedMedia == 0) {
+            return;
+        }
+
+        // Page by page, each in its own transaction, so a large backlog never sits in one session
+        int deleted;
+        do {
+            deleted = QuarkusTransaction.requiringNew().call(() -> {
+                List<Media> page = mediaRepository
+                        .find("project IS NULL AND uploadedAt < ?1 ORDER BY uploadedAt", cutoff)
+                        .page(0, MEDIA_PAGE_SIZE)
+                        .list();
+                storageDeletionService.enqueue(page);
+                page.forEach(mediaRepository::delete);
+                return page.size();
+            });
+            report.deletedMedia += deleted;
+        } while (deleted == MEDIA_PAGE_SIZE);
+
+        mediaStatsService.invalidate();
+        readModel.invalidate();
+    }
+}
@@ -0,0 +1,344 @@
+package com.rbndjx.service;
+
+import com.rbndjx.dto.PresignedUploadDTO;
+import com.rbndjx.dto.SignedUrlDTO;
+import io.quarkus.runtime.configuration.MemorySize;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.inject.Typed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import software.amazon.awssdk.core.exception.SdkException;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+import software.amazon.awssdk.services.s3.presigner.S3Presigner;
+import software.amazon.awssdk.services.s3.presigner.model.GetObjectPresignRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedGetObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PresignedPutObjectRequest;
+import software.amazon.awssdk.services.s3.presigner.model.PutObjectPresignRequest;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Objects in an S3 bucket. Large uploads go through parallel multipart uploads and
+ * direct uploads through presigned PUTs.
+ */
+@ApplicationScoped
+@Typed(S3StorageBackend.class)
+public class S3StorageBackend implements StorageBackend {
+
+    private static final Logger LOGGER = Logger.getLogger(S3StorageBackend.class);
+
+    // S3 rejects multipart parts smaller than 5MB, except the last one
+    private static final long MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    @Inject
+    S3Client s3Client;
+
+    @Inject
+    S3Presigner s3Presigner;
+
+    @ConfigProperty(name = "aws.s3.bucket-name")
+    String bucketName;
+
+    @ConfigProperty(name = "portfolio.s3.multipart.threshold")
+    MemorySize multipartThreshold;
+
+    @ConfigProperty(name = "portfolio.s3.multipart.part-size")
+    MemorySize multipartPartSize;
+
+    @ConfigProperty(name = "portfolio.s3.multipart.concurrency")
+    int multipartConcurrency;
+
+    private ExecutorService partUploadExecutor;
+
+    @PostConstruct
+    void init() {
+        if (multipartPartSize.asLongValue() < MIN_PART_SIZE) {
+            throw new IllegalStateException("portfolio.s3.multipart.part-size must be at least 5M");
+        }
+        // Part uploads block on I/O: virtual threads make them cheap, and the per-upload semaphore
+        // and the HTTP connection pool bound the actual concurrency
+        partUploadExecutor = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("s3-part-upload-", 0).factory());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        partUploadExecutor.shutdownNow();
+    }
+
+    @Override
+    public void put(String key, InputStream data, long size, String contentType) {
+        if (size >= multipartThreshold.asLongValue()) {
+            uploadMultipart(data, key, contentType, size);
+        } else {
+            PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .contentType(contentType)
+                    .build();
+
+            s3Client.putObject(putObjectRequest, RequestBody.fromInputStream(data, size));
+        }
+    }
+
+    /**
+     * Uploads the stream as a multipart upload, sending up to {@code multipartConcurrency} parts
+     * in parallel. The stream is read sequentially and at most that many parts are buffered at once.
+     * Each part is retried on its own; if one still fails, the whole upload is aborted so S3 drops
+     * the parts already stored.
+     */
+    private void uploadMultipart(InputStream fileStream, String key, String mimeType, long fileSize) {
+        String uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(mimeType)
+                .build()).uploadId();
+
+        long partSize = multipartPartSize.asLongValue();
+        int partCount = (int) ((fileSize + partSize - 1) / partSize);
+        Semaphore bufferedParts = new Semaphore(multipartConcurrency);
+        AtomicBoolean failed = new AtomicBoolean();
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>(partCount);
+
+        try {
+            for (int partNumber = 1; partNumber <= partCount && !failed.get(); partNumber++) {
+                int length = (int) Math.min(partSize, fileSize - (partNumber - 1) * partSize);
+                bufferedParts.acquire();
+                byte[] bytes;
+                try {
+                    bytes = fileStream.readNBytes(length);
+                } catch (IOException e) {
+                    bufferedParts.release();
+                    throw e;
+                }
+                if (bytes.length != length) {
+                    bufferedParts.release();
+                    throw new EOFException("Stream ended before the declared size of " + fileSize + " bytes");
+                }
+
+                int number = partNumber;
+                parts.add(CompletableFuture
+                        .supplyAsync(() -> uploadPart(key, uploadId, number, bytes), partUploadExecutor)
+                        .whenComplete((part, error) -> {
+                            if (error != null) {
+                                failed.set(true);
+                            }
+                            bufferedParts.release();
+                        }));
+            }
+
+            List<CompletedPart> completedParts = new ArrayList<>(partCount);
+            for (CompletableFuture<CompletedPart> part : parts) {
+                completedParts.add(part.join());
+            }
+
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+        } catch (Exception e) {
+            parts.forEach(part -> part.cancel(true));
+            abortMultipartUpload(key, uploadId);
+            if (e instanceof InterruptedException) {
+                Thread.currentThread().interrupt();
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+            throw new IllegalStateException("Multipart upload of " + key + " failed", cause);
+        }
+    }
+
+    private CompletedPart uploadPart(String key, String uploadId, int partNumber, byte[] bytes) {
+        UploadPartRequest uploadPartRequest = UploadPartRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .uploadId(uploadId)
+                .partNumber(partNumber)
+                .contentLength((long) bytes.length)
+                .build();
+
+        // Transient failures are retried by the client's own retry policy
+        String eTag = s3Client.uploadPart(uploadPartRequest, RequestBody.fromBytes(bytes)).eTag();
+        return CompletedPart.builder().partNumber(partNumber).eTag(eTag).build();
+    }
+
+    private void abortMultipartUpload(String key, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (SdkException e) {
+            // The bucket lifecycle rule for incomplete uploads is the fallback
+            LOGGER.errorf(e, "Failed to abort multipart upload %s of %s", uploadId, key);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) {
+        try {
+            return s3Client.getObject(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .build());
+        } catch (NoSuchKeyException e) {
+            throw new NotFoundException("No stored object " + key);
+        }
+    }
+
+    /**
+     * Ranged GET, so only the requested bytes are transferred.
+     */
+    @Override
+    public byte[] readPrefix(String key, int length) {
+        try {
+            return s3Client.getObjectAsBytes(GetObjectRequest.builder()
+                    .bucket(bucketName)
+                    .key(key)
+                    .range("bytes=0-" + (length - 1))
+                    .build()).asByteArray();
+        } catch (NoSuchKeyException e) {
+            throw new NotFoundException("No stored object " + key);
+        } catch (S3Exception e) {
+            // 416 on an empty object: there is no first byte to return
+            if (e.statusCode() == 416) {
+                return new byte[0];
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Includes the checksum S3 verified on upload, when the uploader declared one.
+     */
+    @Override
+    public Optional<StoredObject> head(String key) {
+        HeadObjectRequest headObjectRequest = HeadObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .checksumMode(ChecksumMode.ENABLED)
+                .build();
+
+        try {
+            HeadObjectResponse object = s3Client.headObject(headObjectRequest);
+            String sha256 = object.checksumSHA256() != null
+                    ? HexFormat.of().formatHex(Base64.getDecoder().decode(object.checksumSHA256()))
+                    : null;
+            return Optional.of(new StoredObject(key, object.contentLength(), object.contentType(),
+                    object.lastModified(), sha256));
+        } catch (NoSuchKeyException e) {
+            return Optional.empty();
+        }
+    }
+
+    @Override
+    public Map<String, String> delete(List<String> keys) {
+        DeleteObjectsRequest deleteObjectsRequest = DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder()
+                        .objects(keys.stream().map(key -> ObjectIdentifier.builder().key(key).build()).toList())
+                        .quiet(true)
+                        .build())
+                .build();
+
+        Map<String, String> errors = new HashMap<>();
+        for (S3Error error : s3Client.deleteObjects(deleteObjectsRequest).errors()) {
+            errors.put(error.key(), error.code() + ": " + error.message());
+        }
+        return errors;
+    }
+
+    /**
+     * One ListObjectsV2 request per page of up to 1000 objects, in key order.
+     */
+    @Override
+    public Iterable<List<StoredObject>> list() {
+        return () -> s3Client.listObjectsV2Paginator(ListObjectsV2Request.builder()
+                        .bucket(bucketName)
+                        .build())
+                .stream()
+                .map(page -> page.contents().stream()
+                        .map(object -> new StoredObject(object.key(), object.size(), null, object.lastModified(), null))
+                        .toList())
+                .iterator();
+    }
+
+    @Override
+    public String url(String key) {
+        return String.format("https://%s.s3.amazonaws.com/%s", bucketName, key);
+    }
+
+    @Override
+    public SignedUrlDTO presignGet(String key, Duration expiration) {
+        GetObjectRequest getObjectRequest = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .build();
+
+        GetObjectPresignRequest presignRequest = GetObjectPresignRequest.builder()
+                .signatureDuration(expiration)
+                .getObjectRequest(getObjectRequest)
+                .build();
+
+        PresignedGetObjectRequest presigned = s3Presigner.presignGetObject(presignRequest);
+        return new SignedUrlDTO(presigned.url().toString(), presigned.expiration());
+    }
+
+    /**
+     * Content type, length and checksum are part of the signature, so S3 rejects any other upload.
+     */
+    @Override
+    public PresignedUploadDTO presignPut(String key, String contentType, long size, String sha256, Duration expiration) {
+        PutObjectRequest putObjectRequest = PutObjectRequest.builder()
+                .bucket(bucketName)
+                .key(key)
+                .contentType(contentType)
+                .contentLength(size)
+                .checksumSHA256(sha256 != null ? Base64.getEncoder().encodeToString(HexFormat.of().parseHex(sha256)) : null)
+                .build();
+
+        PutObjectPresignRequest presignRequest = PutObjectPresignRequest.builder()
+                .signatureDuration(expiration)
+                .putObjectRequest(putObjectRequest)
+                .build();
+
+        PresignedPutObjectRequest presigned = s3Presigner.presignPutObject(presignRequest);
+        return new PresignedUploadDTO(
+                key,
+                presigned.httpRequest().method().name(),
+                presigned.url().toString(),
+                presigned.signedHeaders(),
+                presigned.expiration()
+        );
+    }
+}
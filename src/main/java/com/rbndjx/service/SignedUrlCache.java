@@ -0,0 +1,133 @@
+package com.rbndjx.service;
+
+import com.rbndjx.dto.SignedUrlDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache of presigned GET URLs, keyed by media ID and lifetime bucket.
+ * A cached URL is handed out again while at least half of its lifetime remains, so callers
+ * always get a URL valid for a meaningful part of what they asked for, and a hit needs
+ * neither the database nor the presigner.
+ */
+@ApplicationScoped
+public class SignedUrlCache {
+
+    @Inject
+    TransactionHooks transactionHooks;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "portfolio.media.signed-url-cache.max-size")
+    int maxSize;
+
+    // Lifetimes URLs are signed with: requested lifetimes round up to one of these, so callers
+    // asking for slightly different lifetimes share entries. The last one is the SigV4 maximum.
+    private static final int[] LIFETIME_BUCKETS = {300, 900, 3600, 21600, 86400, 604800};
+
+    private Map<String, SignedUrlDTO> entries;
+    private Counter hits;
+    private Counter misses;
+
+    @PostConstruct
+    void init() {
+        entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, SignedUrlDTO> eldest) {
+                return size() > maxSize;
+            }
+        };
+        hits = Counter.builder("portfolio.signed_url_cache.lookups").tag("result", "hit").register(meterRegistry);
+        misses = Counter.builder("portfolio.signed_url_cache.lookups").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("portfolio.signed_url_cache.size", this, SignedUrlCache::size).register(meterRegistry);
+    }
+
+    /**
+     * Lifetime to sign and cache a URL with for the requested one: the smallest bucket at least
+     * as long, capped at seven days.
+     */
+    public static int lifetime(int requestedSeconds) {
+        for (int bucket : LIFETIME_BUCKETS) {
+            if (requestedSeconds <= bucket) {
+                return bucket;
+            }
+        }
+        return LIFETIME_BUCKETS[LIFETIME_BUCKETS.length - 1];
+    }
+
+    /**
+     * Returns a cached URL for the media if one is still fresh enough, otherwise signs a new one.
+     * The lifetime must be one returned by {@link #lifetime(int)}.
+     */
+    public SignedUrlDTO get(String mediaId, int expirationSeconds, Supplier<SignedUrlDTO> signer) {
+        SignedUrlDTO cached = find(mediaId, expirationSeconds);
+        if (cached != null) {
+            return cached;
+        }
+        SignedUrlDTO signed = signer.get();
+        put(mediaId, expirationSeconds, signed);
+        return signed;
+    }
+
+    /**
+     * Cached URL for the media if one is still fresh enough, otherwise null.
+     */
+    public SignedUrlDTO find(String mediaId, int expirationSeconds) {
+        Instant freshUntil = Instant.now().plus(Duration.ofSeconds(expirationSeconds / 2));
+        SignedUrlDTO cached;
+        synchronized (entries) {
+            cached = entries.get(key(mediaId, expirationSeconds));
+        }
+        if (cached != null && cached.expiresAt.isAfter(freshUntil)) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        return null;
+    }
+
+    public void put(String mediaId, int expirationSeconds, SignedUrlDTO signedUrl) {
+        synchronized (entries) {
+            entries.put(key(mediaId, expirationSeconds), signedUrl);
+        }
+    }
+
+    /**
+     * Drops every URL of the media once the current transaction commits.
+     */
+    public void evict(Collection<String> mediaIds) {
+        if (mediaIds.isEmpty()) {
+            return;
+        }
+        Set<String> ids = Set.copyOf(mediaIds);
+        transactionHooks.afterCommit(() -> {
+            synchronized (entries) {
+                entries.keySet().removeIf(key -> ids.contains(key.substring(0, key.indexOf(':'))));
+            }
+        });
+    }
+
+    private static String key(String mediaId, int expirationSeconds) {
+        return mediaId + ":" + expirationSeconds;
+    }
+
+    private int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package com.rbndjx.service;
+
+import com.rbndjx.dto.PresignedUploadDTO;
+import com.rbndjx.dto.SignedUrlDTO;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Where media bytes live. Objects are addressed by key ({@code folder/file.ext}); media rows store
+ * the key so nothing has to be parsed back out of URLs. The implementation in use is chosen with
+ * {@code portfolio.storage.backend}, see {@link com.rbndjx.config.StorageConfig}.
+ */
+public interface StorageBackend {
+
+    int LIST_PAGE_SIZE = 1000;
+
+    /**
+     * Stores exactly {@code size} bytes of the stream under the key, replacing any previous object.
+     */
+    void put(String key, InputStream data, long size, String contentType);
+
+    /**
+     * Opens the object for reading.
+     *
+     * @throws jakarta.ws.rs.NotFoundException if there is no such object
+     */
+    InputStream open(String key);
+
+    /**
+     * Up to {@code length} leading bytes of the object.
+     *
+     * @throws jakarta.ws.rs.NotFoundException if there is no such object
+     */
+    default byte[] readPrefix(String key, int length) {
+        try (InputStream in = open(key)) {
+            return in.readNBytes(length);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read " + key, e);
+        }
+    }
+
+    /**
+     * Object metadata, or empty when the object does not exist.
+     */
+    Optional<StoredObject> head(String key);
+
+    /**
+     * Deletes up to 1000 objects. Returns the error message of every key that could not be
+     * deleted; deleting a missing key counts as a success.
+     */
+    Map<String, String> delete(List<String> keys);
+
+    /**
+     * Lazily lists every object, one page at a time.
+     */
+    Iterable<List<StoredObject>> list();
+
+    /**
+     * Permanent URL of the object, as stored on media rows.
+     */
+    String url(String key);
+
+    /**
+     * Temporary read URL of the object.
+     */
+    SignedUrlDTO presignGet(String key, Duration expiration);
+
+    /**
+     * Presigned PUT of exactly {@code size} bytes of type {@code contentType} to the key.
+     * When {@code sha256} (hex) is given, the backend rejects bytes that do not match it.
+     *
+     * @throws jakarta.ws.rs.BadRequestException if the backend does not accept direct uploads
+     */
+    PresignedUploadDTO presignPut(String key, String contentType, long size, String sha256, Duration expiration);
+
+    /**
+     * Whether {@link #url} points to this application's {@code /storage} endpoint rather than
+     * to an external service.
+     */
+    default boolean servedByApplication() {
+        return false;
+    }
+
+    /**
+     * Groups the objects of each iteration into pages of {@link #LIST_PAGE_SIZE}, for {@link #list}.
+     */
+    static Iterable<List<StoredObject>> paged(Supplier<Iterator<StoredObject>> objects) {
+        return () -> new Iterator<>() {
+            private final Iterator<StoredObject> source = objects.get();
+
+            @Override
+            public boolean hasNext() {
+                return source.hasNext();
+            }
+
+            @Override
+            public List<StoredObject> next() {
+                if (!source.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                List<StoredObject> page = new ArrayList<>(LIST_PAGE_SIZE);
+                while (source.hasNext() && page.size() < LIST_PAGE_SIZE) {
+                    page.add(source.next());
+                }
+                return page;
+            }
+        };
+    }
+}
@@ -0,0 +1,216 @@
+package com.rbndjx.service;
+
+import com.rbndjx.domain.Media;
+import com.rbndjx.domain.MediaRepository;
+import com.rbndjx.domain.StorageDeletion;
+import com.rbndjx.domain.StorageDeletionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+import software.amazon.awssdk.core.exception.SdkException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Transactional outbox for storage deletions. Callers enqueue object keys in the transaction
+ * that drops their last reference; a scheduled worker claims due rows with a lease, deletes the
+ * objects with S3 DeleteObjects (up to 1000 keys per request) and removes the rows, retrying
+ * failed keys with exponential backoff.
+ */
+@ApplicationScoped
+public class StorageDeletionService {
+
+    private static final Logger LOGGER = Logger.getLogger(StorageDeletionService.class);
+
+    // S3 limit for a single DeleteObjects request
+    private static final int MAX_KEYS_PER_REQUEST = 1000;
+    private static final Duration FIRST_RETRY_DELAY = Duration.ofSeconds(30);
+    private static final Duration MAX_RETRY_DELAY = Duration.ofHours(1);
+
+    @Inject
+    StorageDeletionRepository storageDeletionRepository;
+
+    @Inject
+    StorageService storageService;
+
+    @Inject
+    MediaRepository mediaRepository;
+
+    @Inject
+    SignedUrlCache signedUrlCache;
+
+    @Inject
+    MediaContentService mediaContentService;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @ConfigProperty(name = "portfolio.storage.deletion.batch-size")
+    int batchSize;
+
+    @ConfigProperty(name = "portfolio.storage.deletion.lease")
+    Duration lease;
+
+    @ConfigProperty(name = "portfolio.storage.deletion.error-log-after-attempts")
+    int errorLogAfterAttempts;
+
+    private final AtomicLong backlog = new AtomicLong();
+    private Counter deleted;
+    private Counter failed;
+    private Timer batchTimer;
+
+    @PostConstruct
+    void init() {
+        deleted = Counter.builder("portfolio.storage_deletion.objects").tag("result", "deleted").register(meterRegistry);
+        failed = Counter.builder("portfolio.storage_deletion.objects").tag("result", "failed").register(meterRegistry);
+        batchTimer = Timer.builder("portfolio.storage_deletion.batch").register(meterRegistry);
+        meterRegistry.gauge("portfolio.storage_deletion.backlog", backlog);
+    }
+
+    /**
+     * Queues deletion of the media file and its variants, unless other media share them, and
+     * drops the cached signed URLs and content of the media once committed.
+     * Must run in the transaction that deletes the media row, before it is deleted.
+     */
+    public void enqueue(Media media) {
+        enqueue(List.of(media));
+    }
+
+    /**
+     * Same as {@link #enqueue(Media)} for media deleted together: an object shared only
+     * within the set is queued once, with the last of them.
+     */
+    public void enqueue(Collection<Media> media) {
+        Set<String> deletedIds = new HashSet<>();
+        // Variant keys are read before any query below flushes the pending deletions
+        Map<String, Set<String>> keysByOriginal = new LinkedHashMap<>();
+        for (Media item : media) {
+            deletedIds.add(item.id);
+            if (item.storageKey == null) {
+                continue;
+            }
+            Set<String> keys = keysByOriginal.computeIfAbsent(item.storageKey, key -> new LinkedHashSet<>());
+            keys.add(item.storageKey);
+            item.variants.forEach(variant -> keys.add(variant.storageKey));
+        }
+
+        signedUrlCache.evict(deletedIds);
+        mediaContentService.evict(deletedIds);
+
+        if (keysByOriginal.isEmpty()) {
+            return;
+        }
+        mediaRepository.lockByStorageKeys(keysByOriginal.keySet());
+        Set<String> stillReferenced = mediaRepository.findKeysReferencedOutside(keysByOriginal.keySet(), deletedIds);
+        keysByOriginal.forEach((original, keys) -> {
+            if (!stillReferenced.contains(original)) {
+                keys.forEach(this::enqueueKey);
+            }
+        });
+    }
+
+    public void enqueueKey(String key) {
+        storageDeletionRepository.persist(new StorageDeletion(key));
+    }
+
+    @Scheduled(every = "{portfolio.storage.deletion.interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledDrain() {
+        drain();
+    }
+
+    /**
+     * Processes due deletions until none is left. Returns the number of rows processed.
+     */
+    public int drain() {
+        int processed = 0;
+        List<StorageDeletion> claimed;
+        do {
+            claimed = QuarkusTransaction.requiringNew().call(() -> {
+                LocalDateTime now = LocalDateTime.now();
+                return storageDeletionRepository.claimDue(batchSize, now, now.plus(lease));
+            });
+            if (!claimed.isEmpty()) {
+                List<StorageDeletion> batch = claimed;
+                batchTimer.record(() -> process(batch));
+                processed += claimed.size();
+            }
+        } while (claimed.size() == batchSize);
+
+        backlog.set(QuarkusTransaction.requiringNew().call(storageDeletionRepository::countPending));
+        return processed;
+    }
+
+    private void process(List<StorageDeletion> claimed) {
+        // The network calls run outside any transaction: the lease keeps other workers away
+        List<String> keys = claimed.stream().map(deletion -> deletion.objectKey).distinct().toList();
+        Map<String, String> errors = new HashMap<>();
+        for (int from = 0; from < keys.size(); from += MAX_KEYS_PER_REQUEST) {
+            List<String> chunk = keys.subList(from, Math.min(keys.size(), from + MAX_KEYS_PER_REQUEST));
+            try {
+                errors.putAll(storageService.deleteFiles(chunk));
+            } catch (SdkException e) {
+                chunk.forEach(key -> errors.put(key, e.getMessage()));
+            }
+        }
+
+        List<String> doneIds = new ArrayList<>();
+        List<StorageDeletion> failures = new ArrayList<>();
+        for (StorageDeletion deletion : claimed) {
+            if (errors.containsKey(deletion.objectKey)) {
+                failures.add(deletion);
+            } else {
+                doneIds.add(deletion.id);
+            }
+        }
+
+        QuarkusTransaction.requiringNew().run(() -> {
+            if (!doneIds.isEmpty()) {
+                storageDeletionRepository.delete("id IN ?1", doneIds);
+            }
+            LocalDateTime now = LocalDateTime.now();
+            for (StorageDeletion failure : failures) {
+                StorageDeletion deletion = storageDeletionRepository.findById(failure.id);
+                if (deletion == null) {
+                    continue;
+                }
+                deletion.attempts++;
+                deletion.lastError = errors.get(deletion.objectKey);
+                deletion.lockedUntil = null;
+                deletion.nextAttemptAt = now.plus(retryDelay(deletion.attempts));
+                if (deletion.attempts >= errorLogAfterAttempts) {
+                    LOGGER.errorf("Deletion of %s failed %d times, still retrying: %s",
+                            deletion.objectKey, deletion.attempts, deletion.lastError);
+                }
+            }
+        });
+
+        deleted.increment(doneIds.size());
+        failed.increment(failures.size());
+        if (!failures.isEmpty()) {
+            LOGGER.warnf("%d of %d storage deletions failed and will be retried", failures.size(), claimed.size());
+        }
+    }
+
+    private static Duration retryDelay(int attempts) {
+        Duration delay = FIRST_RETRY_DELAY.multipliedBy(1L << Math.min(attempts - 1, 16));
+        return delay.compareTo(MAX_RETRY_DELAY) > 0 ? MAX_RETRY_DELAY : delay;
+    }
+}
@@ -0,0 +1,206 @@
+package com.rbndjx.service;
+
+import com.rbndjx.domain.Media;
+import com.rbndjx.domain.MediaRepository;
+import com.rbndjx.domain.MediaVariant;
+import com.rbndjx.dto.PresignedUploadDTO;
+import com.rbndjx.dto.SignedUrlDTO;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Media-level storage operations (naming, uploads, signed URLs) on top of the configured
+ * {@link StorageBackend}.
+ */
+@ApplicationScoped
+public class StorageService {
+
+    private static final Logger LOGGER = Logger.getLogger(StorageService.class);
+
+    private static final int BACKFILL_PAGE_SIZE = 500;
+
+    @Inject
+    StorageBackend backend;
+
+    @Inject
+    MediaRepository mediaRepository;
+
+    @ConfigProperty(name = "aws.s3.bucket-name")
+    String bucketName;
+
+    /**
+     * Stores the stream and returns the key of the new object.
+     */
+    public String uploadFile(InputStream fileStream, String fileName, String mimeType, String folder, long fileSize) {
+        String key = buildKey(fileName, folder);
+        long start = System.nanoTime();
+
+        backend.put(key, fileStream, fileSize, mimeType);
+
+        double seconds = Math.max(System.nanoTime() - start, 1) / 1e9;
+        LOGGER.infof("Uploaded %s: %d bytes in %.2f s (%.1f MB/s)",
+                key, fileSize, seconds, fileSize / seconds / (1024 * 1024));
+        return key;
+    }
+
+    /**
+     * Presigns a direct upload of exactly {@code fileSize} bytes of type {@code mimeType} to {@code key}.
+     * When {@code sha256} (hex) is given, bytes that do not match it are rejected.
+     */
+    public PresignedUploadDTO presignUpload(String key, String mimeType, long fileSize, String sha256, Duration expiration) {
+        return backend.presignPut(key, mimeType, fileSize, sha256, expiration);
+    }
+
+    /**
+     * Object metadata, including its verified checksum if any, or empty when the object does not exist.
+     */
+    public Optional<StoredObject> headObject(String key) {
+        return backend.head(key);
+    }
+
+    public byte[] readPrefix(String key, int length) {
+        return backend.readPrefix(key, length);
+    }
+
+    public InputStream openObject(String key) {
+        return backend.open(key);
+    }
+
+    public Iterable<List<StoredObject>> listObjectPages() {
+        return backend.list();
+    }
+
+    public String buildKey(String fileName, String folder) {
+        return folder != null ? folder + "/" + fileName : fileName;
+    }
+
+    public String getObjectUrl(String key) {
+        return backend.url(key);
+    }
+
+    public boolean servedByApplication() {
+        return backend.servedByApplication();
+    }
+
+    /**
+     * Serves an object of the local or in-memory backend; S3 objects are fetched from S3 directly.
+     */
+    public Response respond(String key) {
+        if (!backend.servedByApplication()) {
+            throw new NotFoundException("Objects are served by the storage provider");
+        }
+        StoredObject object = backend.head(key)
+                .orElseThrow(() -> new NotFoundException("No stored object " + key));
+        return Response.ok(backend.open(key))
+                .type(object.contentType != null ? object.contentType : MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_LENGTH, object.size)
+                .header(HttpHeaders.CACHE_CONTROL, "public, max-age=86400")
+                .build();
+    }
+
+    public void deleteFile(String key) {
+        Map<String, String> errors = backend.delete(List.of(key));
+        if (!errors.isEmpty()) {
+            throw new IllegalStateException("Could not delete " + key + ": " + errors.get(key));
+        }
+    }
+
+    /**
+     * Deletes up to 1000 objects. Returns the error message of every key that could not be
+     * deleted; deleting a missing key counts as a success.
+     */
+    public Map<String, String> deleteFiles(List<String> keys) {
+        return backend.delete(keys);
+    }
+
+    public SignedUrlDTO generateSignedUrl(String key, int expirationSeconds) {
+        return backend.presignGet(key, Duration.ofSeconds(expirationSeconds));
+    }
+
+    public String generateUniqueFileName(String originalName) {
+        long timestamp = System.currentTimeMillis();
+        String random = UUID.randomUUID().toString().substring(0, 8);
+        String extension = getFileExtension(originalName);
+        return timestamp + "-" + random + extension;
+    }
+
+    public String getFolderByMimeType(String mimeType) {
+        if (mimeType.startsWith("image/")) {
+            return "images";
+        } else if (mimeType.startsWith("video/")) {
+            return "videos";
+        } else if (mimeType.equals("application/pdf") || 
+                   mimeType.contains("document") || 
+                   mimeType.equals("text/plain")) {
+            return "documents";
+        }
+        return "others";
+    }
+
+    private String getFileExtension(String fileName) {
+        int lastDotIndex = fileName.lastIndexOf('.');
+        return lastDotIndex != -1 ? fileName.substring(lastDotIndex) : "";
+    }
+
+    /**
+     * Fills the storage key of media stored before keys were recorded, from their S3 URL.
+     * Runs page by page, each in its own transaction, and is a no-op once every row has a key.
+     */
+    void backfillStorageKeys(@Observes StartupEvent event) {
+        int updated = 0;
+        int page;
+        try {
+            do {
+                page = QuarkusTransaction.requiringNew().call(() -> {
+                    List<Media> media = mediaRepository.find("storageKey IS NULL").page(0, BACKFILL_PAGE_SIZE).list();
+                    for (Media item : media) {
+                        item.storageKey = extractKeyFromUrl(item.url);
+                        for (MediaVariant variant : item.variants) {
+                            if (variant.storageKey == null) {
+                                variant.storageKey = extractKeyFromUrl(variant.url);
+                            }
+                        }
+                    }
+                    return media.size();
+                });
+                updated += page;
+            } while (page == BACKFILL_PAGE_SIZE);
+        } catch (Exception e) {
+            LOGGER.errorf(e, "Storage key backfill stopped after %d media", updated);
+            return;
+        }
+        if (updated > 0) {
+            LOGGER.infof("Backfilled the storage key of %d media", updated);
+        }
+    }
+
+    private String extractKeyFromUrl(String url) {
+        // Example: https://bucket-name.s3.amazonaws.com/folder/file.jpg -> folder/file.jpg
+        String[] parts = url.split(bucketName + ".s3.amazonaws.com/");
+        if (parts.length > 1) {
+            return parts[1];
+        }
+        // Alternative format: https://s3.region.amazonaws.com/bucket/key
+        parts = url.split(bucketName + "/");
+        if (parts.length > 1) {
+            return parts[1];
+        }
+        throw new IllegalArgumentException("Invalid S3 URL format: " + url);
+    }
+}
@@ -0,0 +1,24 @@
+package com.rbndjx.service;
+
+import java.time.Instant;
+
+/**
+ * Metadata of an object held by a {@link StorageBackend}.
+ */
+public class StoredObject {
+
+    public final String key;
+    public final long size;
+    public final String contentType;
+    public final Instant lastModified;
+    // Hex SHA-256 of the content when the backend knows it, null otherwise
+    public final String sha256;
+
+    public StoredObject(String key, long size, String contentType, Instant lastModified, String sha256) {
+        this.key = key;
+        this.size = size;
+        this.contentType = contentType;
+        this.lastModified = lastModified;
+        this.sha256 = sha256;
+    }
+}
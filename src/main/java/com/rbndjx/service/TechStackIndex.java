@@ -0,0 +1,181 @@
+package com.rbndjx.service;
+
+import com.rbndjx.domain.ProjectRepository;
+import com.rbndjx.domain.Techno;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Bitmap index from technology to the projects using it. Each project gets a dense ordinal
+ * and each technology a bitmap of project ordinals, so filtering on several technologies is
+ * a bitmap AND/OR instead of joins over project_techno.
+ * Built lazily from one projection query, updated by ProjectService and TechnoService after
+ * commit, and rebuilt after the read model max age to pick up changes from other instances.
+ */
+@ApplicationScoped
+public class TechStackIndex {
+
+    @Inject
+    ProjectRepository projectRepository;
+
+    @Inject
+    TransactionHooks transactionHooks;
+
+    @ConfigProperty(name = "portfolio.read-model.max-age")
+    Duration maxAge;
+
+    private static final class State {
+        final Map<String, Integer> ordinals = new HashMap<>();
+        final List<String> projectIds = new ArrayList<>();
+        // techno id -> ordinals of the projects using it
+        final Map<String, BitSet> projectsByTechno = new HashMap<>();
+        // normalized technology name -> techno ids
+        final Map<String, Set<String>> technoIdsByName = new HashMap<>();
+        final long builtAtNanos = System.nanoTime();
+
+        int ordinal(String projectId) {
+            return ordinals.computeIfAbsent(projectId, id -> {
+                projectIds.add(id);
+                return projectIds.size() - 1;
+            });
+        }
+
+        void link(String projectId, String technoId, String technology) {
+            projectsByTechno.computeIfAbsent(technoId, id -> new BitSet()).set(ordinal(projectId));
+            technoIdsByName.computeIfAbsent(normalize(technology), name -> new HashSet<>()).add(technoId);
+        }
+
+        void unlinkProject(String projectId) {
+            Integer ordinal = ordinals.get(projectId);
+            if (ordinal != null) {
+                projectsByTechno.values().forEach(projects -> projects.clear(ordinal));
+            }
+        }
+    }
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private State state;
+
+    /**
+     * Ids of the projects using all (or any) of the given technologies, matched by name
+     * case-insensitively.
+     */
+    public Set<String> projectsUsing(Collection<String> technologies, boolean matchAll) {
+        lock.readLock().lock();
+        try {
+            State current = state;
+            if (current == null || System.nanoTime() - current.builtAtNanos > maxAge.toNanos()) {
+                lock.readLock().unlock();
+                try {
+                    current = rebuild();
+                } finally {
+                    lock.readLock().lock();
+                }
+            }
+
+            BitSet result = null;
+            for (String technology : technologies) {
+                BitSet projects = new BitSet();
+                for (String technoId : current.technoIdsByName.getOrDefault(normalize(technology), Set.of())) {
+                    projects.or(current.projectsByTechno.getOrDefault(technoId, new BitSet()));
+                }
+                if (result == null) {
+                    result = projects;
+                } else if (matchAll) {
+                    result.and(projects);
+                } else {
+                    result.or(projects);
+                }
+            }
+
+            Set<String> ids = new HashSet<>();
+            if (result != null) {
+                for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+                    ids.add(current.projectIds.get(ordinal));
+                }
+            }
+            return ids;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the technologies of a project once the transaction commits.
+     */
+    public void setProjectTechnologies(String projectId, List<Techno> techStack) {
+        List<String[]> links = techStack.stream()
+                .map(t -> new String[] {t.id, t.technology})
+                .toList();
+        transactionHooks.afterCommit(() -> update(state -> {
+            state.unlinkProject(projectId);
+            links.forEach(link -> state.link(projectId, link[0], link[1]));
+        }));
+    }
+
+    public void removeProject(String projectId) {
+        transactionHooks.afterCommit(() -> update(state -> state.unlinkProject(projectId)));
+    }
+
+    public void renameTechnology(String technoId, String technology) {
+        transactionHooks.afterCommit(() -> update(state -> {
+            state.technoIdsByName.values().forEach(ids -> ids.remove(technoId));
+            state.technoIdsByName.computeIfAbsent(normalize(technology), name -> new HashSet<>()).add(technoId);
+        }));
+    }
+
+    public void removeTechnology(String technoId) {
+        transactionHooks.afterCommit(() -> update(state -> {
+            state.projectsByTechno.remove(technoId);
+            state.technoIdsByName.values().forEach(ids -> ids.remove(technoId));
+        }));
+    }
+
+    public static String normalize(String technology) {
+        return Techno.normalize(technology);
+    }
+
+    private void update(Consumer<State> change) {
+        lock.writeLock().lock();
+        try {
+            // Not built yet: the next build reads the committed data anyway
+            if (state != null) {
+                change.accept(state);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private State rebuild() {
+        lock.writeLock().lock();
+        try {
+            if (state != null && System.nanoTime() - state.builtAtNanos <= maxAge.toNanos()) {
+                return state;
+            }
+            State built = new State();
+            List<Object[]> links = QuarkusTransaction.joiningExisting().call(projectRepository::findTechStackLinks);
+            for (Object[] link : links) {
+                built.link((String) link[0], (String) link[1], (String) link[2]);
+            }
+            state = built;
+            return built;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
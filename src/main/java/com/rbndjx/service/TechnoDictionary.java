@@ -0,0 +1,80 @@
+package com.rbndjx.service;
+
+import com.rbndjx.domain.Techno;
+import com.rbndjx.domain.TechnoRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * Normalized technology name to techno id, so known technologies are resolved from memory.
+ * Loaded once from a projection query and kept up to date after commit by TechnoService.
+ * Changes made on other instances are not seen: an unknown name falls back to the upsert,
+ * and an id that no longer resolves is simply replaced.
+ */
+@ApplicationScoped
+public class TechnoDictionary {
+
+    @Inject
+    TechnoRepository technoRepository;
+
+    @Inject
+    TransactionHooks transactionHooks;
+
+    private volatile Map<String, String> idsByName;
+
+    /**
+     * Id of the technology with this name, compared case-insensitively, or null if unknown.
+     */
+    public String find(String technology) {
+        return ids().get(Techno.normalize(technology));
+    }
+
+    public void putAfterCommit(String technology, String id) {
+        String name = Techno.normalize(technology);
+        transactionHooks.afterCommit(() -> update(ids -> ids.put(name, id)));
+    }
+
+    public void renameAfterCommit(String id, String technology) {
+        String name = Techno.normalize(technology);
+        transactionHooks.afterCommit(() -> update(ids -> {
+            ids.values().remove(id);
+            ids.put(name, id);
+        }));
+    }
+
+    public void removeAfterCommit(String id) {
+        transactionHooks.afterCommit(() -> update(ids -> ids.values().remove(id)));
+    }
+
+    private void update(Consumer<Map<String, String>> change) {
+        Map<String, String> ids = idsByName;
+        // Not loaded yet: the load reads the committed data anyway
+        if (ids != null) {
+            change.accept(ids);
+        }
+    }
+
+    private Map<String, String> ids() {
+        Map<String, String> ids = idsByName;
+        if (ids == null) {
+            synchronized (this) {
+                ids = idsByName;
+                if (ids == null) {
+                    ids = new ConcurrentHashMap<>();
+                    List<Object[]> rows = QuarkusTransaction.joiningExisting().call(technoRepository::findIdsByNormalizedName);
+                    for (Object[] row : rows) {
+                        ids.put((String) row[0], (String) row[1]);
+                    }
+                    idsByName = ids;
+                }
+            }
+        }
+        return ids;
+    }
+}
@@ -4,21 +4,63 @@ import com.rbndjx.domain.Techno;
 import com.rbndjx.domain.TechnoRepository;
 import com.rbndjx.dto.SimpleTechnoDTO;
 import com.rbndjx.dto.TechnoDTO;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.ClientErrorException;
 import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.core.Response;
+import org.hibernate.exception.ConstraintViolationException;
+import org.jboss.logging.Logger;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
 public class TechnoService {
 
+    private static final Logger LOGGER = Logger.getLogger(TechnoService.class);
+
     @Inject
     TechnoRepository technoRepository;
 
+    @Inject
+    PortfolioReadModel readModel;
+
+    @Inject
+    TechStackIndex techStackIndex;
+
+    @Inject
+    TechnoDictionary technoDictionary;
+
+    /**
+     * Technologies used to be unique by exact name only. Case variants must be merged before
+     * names can be unique case-insensitively, which schema updates cannot do, so this does.
+     */
+    void normalizeNames(@Observes StartupEvent event) {
+        int merged = QuarkusTransaction.requiringNew().call(technoRepository::normalizeNames);
+        if (merged > 0) {
+            LOGGER.infof("Merged %d technologies whose names differed only by case", merged);
+            readModel.invalidate();
+        }
+    }
+
     public List<TechnoDTO> listAll() {
+        return readModel.snapshot().technologies();
+    }
+
+    /**
+     * All technologies straight from the database, used to build the read model snapshot.
+     */
+    public List<TechnoDTO> loadAll() {
         return technoRepository.listAll()
                 .stream()
                 .map(this::toDTO)
@@ -26,6 +68,12 @@ public class TechnoService {
     }
 
     public TechnoDTO getById(String id) {
+        TechnoDTO cached = readModel.snapshot().technology(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        // May have been created on another instance since the snapshot was built
         Techno techno = technoRepository.findById(id);
         if (techno == null) {
             throw new NotFoundException("Technology not found");
@@ -33,19 +81,71 @@ public class TechnoService {
         return toDTO(techno);
     }
 
+    /**
+     * Returns the technology with this name, compared case-insensitively, creating it if needed.
+     */
     @Transactional
     public TechnoDTO create(SimpleTechnoDTO dto) {
-        // Check if technology already exists
-        Techno existing = technoRepository.findByTechnology(dto.technology);
-        if (existing != null) {
-            return toDTO(existing);
+        // Known technology: answered from memory
+        String id = technoDictionary.find(dto.technology);
+        if (id != null) {
+            TechnoDTO cached = readModel.snapshot().technology(id);
+            if (cached != null) {
+                return cached;
+            }
         }
 
-        Techno techno = new Techno(dto.technology, dto.iconUrl);
-        technoRepository.persist(techno);
+        Techno techno = resolveOrCreate(List.of(new Techno(dto.technology, dto.iconUrl)))
+                .get(Techno.normalize(dto.technology));
         return toDTO(techno);
     }
 
+    /**
+     * Persistent technologies for the given transient ones, matched by normalized name and keyed
+     * by it. Known names are resolved through the dictionary and loaded by id; the others are
+     * inserted with a single upsert, which returns the existing row when another request created
+     * the same name concurrently. Transient technologies keep their id when inserted.
+     */
+    public Map<String, Techno> resolveOrCreate(Collection<Techno> technologies) {
+        Map<String, Techno> byName = new LinkedHashMap<>();
+        for (Techno techno : technologies) {
+            byName.putIfAbsent(Techno.normalize(techno.technology), techno);
+        }
+
+        Map<String, String> knownIds = new HashMap<>();
+        for (String name : byName.keySet()) {
+            String id = technoDictionary.find(name);
+            if (id != null) {
+                knownIds.put(name, id);
+            }
+        }
+        Map<String, Techno> resolved = new HashMap<>();
+        if (!knownIds.isEmpty()) {
+            for (Techno techno : technoRepository.list("id IN ?1", knownIds.values())) {
+                resolved.put(techno.normalizedTechnology, techno);
+            }
+        }
+
+        // Unknown names, and known ones deleted or renamed on another instance since
+        List<Techno> missing = new ArrayList<>();
+        byName.forEach((name, techno) -> {
+            if (!resolved.containsKey(name)) {
+                missing.add(techno);
+            }
+        });
+        if (missing.isEmpty()) {
+            return resolved;
+        }
+
+        Map<String, String> upserted = technoRepository.upsert(missing);
+        for (Techno techno : technoRepository.list("id IN ?1", upserted.values())) {
+            resolved.put(techno.normalizedTechnology, techno);
+            technoDictionary.putAfterCommit(techno.technology, techno.id);
+        }
+        readModel.invalidate();
+        return resolved;
+    }
+
     @Transactional
     public void delete(String id) {
         Techno techno = technoRepository.findById(id);
@@ -53,6 +153,9 @@ public class TechnoService {
             throw new NotFoundException("Technology not found");
         }
         technoRepository.delete(techno);
+        techStackIndex.removeTechnology(id);
+        technoDictionary.removeAfterCommit(id);
+        readModel.invalidate();
     }
 
     @Transactional
@@ -62,9 +165,24 @@ public class TechnoService {
             throw new NotFoundException("Technology not found");
         }
 
+        Techno sameName = technoRepository.findByTechnology(dto.technology);
+        if (sameName != null && !sameName.id.equals(id)) {
+            throw new ClientErrorException("Technology " + sameName.technology + " already exists",
+                    Response.Status.CONFLICT);
+        }
+
         techno.technology = dto.technology;
         techno.iconUrl = dto.iconUrl;
-        technoRepository.persist(techno);
+        try {
+            technoRepository.flush();
+        } catch (ConstraintViolationException e) {
+            // Another request took the name since the check above
+            throw new ClientErrorException("Technology " + dto.technology + " already exists",
+                    Response.Status.CONFLICT);
+        }
+        techStackIndex.renameTechnology(id, techno.technology);
+        technoDictionary.renameAfterCommit(id, techno.technology);
+        readModel.invalidate();
         return toDTO(techno);
     }
 
@@ -7,9 +7,11 @@ import com.rbndjx.dto.TimelineEventDTO;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import jakarta.transaction.Transactional;
+import jakarta.ws.rs.BadRequestException;
 import jakarta.ws.rs.NotFoundException;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @ApplicationScoped
@@ -18,7 +20,20 @@ public class TimelineEventService {
     @Inject
     TimelineEventRepository timelineEventRepository;
 
+    @Inject
+    PortfolioReadModel readModel;
+
+    @Inject
+    PortfolioSearchIndex searchIndex;
+
     public List<TimelineEventDTO> listAll() {
+        return readModel.snapshot().timelineEvents();
+    }
+
+    /**
+     * All timeline events straight from the database, used to build the read model snapshot.
+     */
+    public List<TimelineEventDTO> loadAll() {
         return timelineEventRepository.findAllOrderedByTimestamp()
                 .stream()
                 .map(this::toDTO)
@@ -26,13 +41,28 @@ public class TimelineEventService {
     }
 
     public List<TimelineEventDTO> listByType(TimelineEventType type) {
-        return timelineEventRepository.findByType(type)
+        return readModel.snapshot().timelineEvents(type);
+    }
+
+    public List<TimelineEventDTO> search(String query, int limit) {
+        if (query == null || query.isBlank()) {
+            throw new BadRequestException("Search query must not be empty");
+        }
+        PortfolioSnapshot snapshot = readModel.snapshot();
+        return searchIndex.searchTimelineEvents(query, PageCursor.clampPageSize(limit))
                 .stream()
-                .map(this::toDTO)
+                .map(snapshot::timelineEvent)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
     public TimelineEventDTO getById(String id) {
+        TimelineEventDTO cached = readModel.snapshot().timelineEvent(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        // May have been created on another instance since the snapshot was built
         TimelineEvent event = timelineEventRepository.findById(id);
         if (event == null) {
             throw new NotFoundException("Timeline event not found");
@@ -51,6 +81,8 @@ public class TimelineEventService {
                 dto.location
         );
         timelineEventRepository.persist(event);
+        searchIndex.indexTimelineEvent(event);
+        readModel.invalidate();
         return toDTO(event);
     }
 
@@ -69,6 +101,8 @@ public class TimelineEventService {
         event.image = dto.image;
 
         timelineEventRepository.persist(event);
+        searchIndex.indexTimelineEvent(event);
+        readModel.invalidate();
         return toDTO(event);
     }
 
@@ -79,6 +113,8 @@ public class TimelineEventService {
             throw new NotFoundException("Timeline event not found");
         }
         timelineEventRepository.delete(event);
+        searchIndex.removeTimelineEvent(id);
+        readModel.invalidate();
     }
 
     private TimelineEventDTO toDTO(TimelineEvent event) {
@@ -0,0 +1,54 @@
+package com.rbndjx.service;
+
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.jboss.logging.Logger;
+
+/**
+ * Defers in-memory side effects (cache invalidation, index updates) until the current
+ * transaction completes, so concurrent readers never observe uncommitted changes.
+ * Without an active transaction the action runs immediately.
+ */
+@ApplicationScoped
+public class TransactionHooks {
+
+    private static final Logger LOGGER = Logger.getLogger(TransactionHooks.class);
+
+    @Inject
+    TransactionSynchronizationRegistry registry;
+
+    public void afterCommit(Runnable action) {
+        register(action, true);
+    }
+
+    public void afterCompletion(Runnable action) {
+        register(action, false);
+    }
+
+    private void register(Runnable action, boolean commitOnly) {
+        if (registry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            action.run();
+            return;
+        }
+        registry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (commitOnly && status != Status.STATUS_COMMITTED) {
+                    return;
+                }
+                try {
+                    action.run();
+                } catch (RuntimeException e) {
+                    LOGGER.error("Post-transaction action failed", e);
+                }
+            }
+        });
+    }
+}
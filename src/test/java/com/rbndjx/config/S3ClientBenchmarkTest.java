@@ -0,0 +1,192 @@
+package com.rbndjx.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.s3.S3Client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Throughput of concurrent PUT and GET of small objects through the pooled Apache client
+ * configured like S3Config, against the UrlConnection client it replaced, on a local in-memory
+ * S3 stand-in. Run with {@code mvn test -Pbenchmark -Dtest=S3ClientBenchmarkTest}.
+ */
+@Tag("benchmark")
+class S3ClientBenchmarkTest {
+
+    private static final Logger LOGGER = Logger.getLogger(S3ClientBenchmarkTest.class);
+
+    private static final String BUCKET = "benchmark";
+    private static final int OBJECT_SIZE = 64 * 1024;
+    private static final int CONCURRENCY = 16;
+    private static final int WARMUP_OPERATIONS = 500;
+    private static final int OPERATIONS = 4000;
+
+    private static HttpServer server;
+    private static final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+
+    @BeforeAll
+    static void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/", S3ClientBenchmarkTest::handle);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.start();
+    }
+
+    @AfterAll
+    static void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void pooledClientAgainstUrlConnection() throws Exception {
+        byte[] payload = new byte[OBJECT_SIZE];
+        new Random(42).nextBytes(payload);
+
+        SdkHttpClient urlConnection = UrlConnectionHttpClient.builder()
+                .connectionTimeout(Duration.ofSeconds(2))
+                .socketTimeout(Duration.ofSeconds(30))
+                .build();
+        // Same settings as the defaults of S3Config
+        SdkHttpClient apache = ApacheHttpClient.builder()
+                .maxConnections(32)
+                .connectionTimeout(Duration.ofSeconds(2))
+                .socketTimeout(Duration.ofSeconds(30))
+                .connectionAcquisitionTimeout(Duration.ofSeconds(10))
+                .tcpKeepAlive(true)
+                .build();
+
+        try (S3Client urlConnectionClient = client(urlConnection); S3Client apacheClient = client(apache)) {
+            double urlConnectionThroughput = throughput(urlConnectionClient, payload);
+            double apacheThroughput = throughput(apacheClient, payload);
+            LOGGER.infof("%d KB objects, %d concurrent: UrlConnection %.0f ops/s, Apache %.0f ops/s",
+                    OBJECT_SIZE / 1024, CONCURRENCY, urlConnectionThroughput, apacheThroughput);
+        }
+    }
+
+    // PUT then GET of one object per operation, in operations per second
+    private static double throughput(S3Client client, byte[] payload) throws Exception {
+        run(client, payload, WARMUP_OPERATIONS);
+        long start = System.nanoTime();
+        run(client, payload, OPERATIONS);
+        return OPERATIONS / ((System.nanoTime() - start) / 1e9);
+    }
+
+    private static void run(S3Client client, byte[] payload, int operations) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<?>> results = new ArrayList<>();
+            for (int i = 0; i < operations; i++) {
+                String key = "objects/" + i;
+                results.add(executor.submit(() -> {
+                    client.putObject(request -> request.bucket(BUCKET).key(key), RequestBody.fromBytes(payload));
+                    assertArrayEquals(payload, client.getObjectAsBytes(request -> request.bucket(BUCKET).key(key)).asByteArray());
+                    return null;
+                }));
+            }
+            for (Future<?> result : results) {
+                result.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private static S3Client client(SdkHttpClient httpClient) {
+        return S3Client.builder()
+                .region(Region.EU_WEST_3)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .endpointOverride(URI.create("http://127.0.0.1:" + server.getAddress().getPort()))
+                .forcePathStyle(true)
+                .httpClient(httpClient)
+                .build();
+    }
+
+    // Just enough of S3 for PutObject and GetObject: objects kept in memory by path
+    private static void handle(HttpExchange exchange) throws IOException {
+        try (exchange; InputStream body = exchange.getRequestBody()) {
+            String path = exchange.getRequestURI().getPath();
+            switch (exchange.getRequestMethod()) {
+                case "PUT" -> {
+                    byte[] bytes = body.readAllBytes();
+                    String contentSha256 = exchange.getRequestHeaders().getFirst("x-amz-content-sha256");
+                    if (contentSha256 != null && contentSha256.startsWith("STREAMING-")) {
+                        bytes = decodeChunks(bytes);
+                    }
+                    objects.put(path, bytes);
+                    exchange.getResponseHeaders().add("ETag", "\"" + md5(bytes) + "\"");
+                    exchange.sendResponseHeaders(200, -1);
+                }
+                case "GET" -> {
+                    byte[] bytes = objects.get(path);
+                    if (bytes == null) {
+                        exchange.sendResponseHeaders(404, -1);
+                        return;
+                    }
+                    exchange.getResponseHeaders().add("ETag", "\"" + md5(bytes) + "\"");
+                    exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+                    exchange.sendResponseHeaders(200, bytes.length);
+                    exchange.getResponseBody().write(bytes);
+                }
+                default -> exchange.sendResponseHeaders(405, -1);
+            }
+        }
+    }
+
+    // Signed uploads over plain HTTP are framed as <hex size>;chunk-signature=...\r\n<data>\r\n
+    private static byte[] decodeChunks(byte[] framed) {
+        ByteArrayOutputStream decoded = new ByteArrayOutputStream(framed.length);
+        int position = 0;
+        while (true) {
+            int lineEnd = position;
+            while (framed[lineEnd] != '\r') {
+                lineEnd++;
+            }
+            String header = new String(framed, position, lineEnd - position, StandardCharsets.US_ASCII);
+            int size = Integer.parseInt(header.substring(0, header.indexOf(';')), 16);
+            if (size == 0) {
+                return decoded.toByteArray();
+            }
+            decoded.write(framed, lineEnd + 2, size);
+            position = lineEnd + 2 + size + 2;
+        }
+    }
+
+    private static String md5(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("MD5").digest(bytes));
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
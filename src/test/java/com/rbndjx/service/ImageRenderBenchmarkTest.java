@@ -0,0 +1,77 @@
+package com.rbndjx.service;
+
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * Cost per image of the placeholder and variants, from the encoded original to the encoded
+ * variants, on synthetic photos of common camera sizes. Storage is left out.
+ * Run with {@code mvn test -Pbenchmark -Dtest=ImageRenderBenchmarkTest}.
+ */
+@Tag("benchmark")
+class ImageRenderBenchmarkTest {
+
+    private static final Logger LOGGER = Logger.getLogger(ImageRenderBenchmarkTest.class);
+
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int ITERATIONS = 10;
+
+    @Test
+    void costPerImage() throws IOException {
+        ImageVariantService service = new ImageVariantService();
+        service.widths = List.of(320, 640, 1280);
+        service.maxPixels = 50_000_000L;
+
+        int[][] sizes = {{1600, 1200}, {4000, 3000}, {6000, 4000}};
+        for (int[] size : sizes) {
+            for (String format : new String[]{"jpg", "png"}) {
+                byte[] original = photo(size[0], size[1], format);
+
+                ImageVariantService.RenderedImage rendered = service.render(new ByteArrayInputStream(original), "benchmark", true);
+                assertNotNull(rendered.placeholder);
+                assertEquals(3, rendered.variants.size());
+
+                for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+                    service.render(new ByteArrayInputStream(original), "benchmark", true);
+                }
+                long start = System.nanoTime();
+                for (int i = 0; i < ITERATIONS; i++) {
+                    service.render(new ByteArrayInputStream(original), "benchmark", true);
+                }
+                double millis = (System.nanoTime() - start) / 1e6 / ITERATIONS;
+                LOGGER.infof("%dx%d %s (%d KB): %.1f ms per image", size[0], size[1], format, original.length / 1024, millis);
+            }
+        }
+    }
+
+    // Gradient with noise, so the encoders do roughly as much work as on a photo
+    private static byte[] photo(int width, int height, String format) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = image.createGraphics();
+        graphics.setPaint(new GradientPaint(0, 0, new Color(30, 80, 160), width, height, new Color(220, 170, 60)));
+        graphics.fillRect(0, 0, width, height);
+        graphics.dispose();
+        Random random = new Random(42);
+        for (int i = 0; i < width * height / 20; i++) {
+            image.setRGB(random.nextInt(width), random.nextInt(height), random.nextInt(0xFFFFFF));
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, format, out);
+        return out.toByteArray();
+    }
+}
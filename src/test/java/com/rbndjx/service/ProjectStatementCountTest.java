@@ -0,0 +1,202 @@
+package com.rbndjx.service;
+
+import com.rbndjx.domain.Media;
+import com.rbndjx.domain.MediaRepository;
+import com.rbndjx.domain.MediaType;
+import com.rbndjx.dto.CreateProjectDTO;
+import com.rbndjx.dto.ProjectDTO;
+import com.rbndjx.dto.SimpleTechnoDTO;
+import com.rbndjx.dto.TechnoDTO;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static io.restassured.RestAssured.given;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guards the fetch plans of the project endpoints and mutations: each one must issue a fixed
+ * number of SQL statements, whatever the number of projects, media and technologies involved.
+ */
+@QuarkusTest
+class ProjectStatementCountTest {
+
+    @Inject
+    ProjectService projectService;
+
+    @Inject
+    MediaRepository mediaRepository;
+
+    @Inject
+    SessionFactory sessionFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = sessionFactory.getStatistics();
+        // Enough unpublished projects, each with media and technologies, for any page below
+        for (int i = 0; i < 6; i++) {
+            createProject(2, "java", "quarkus");
+        }
+    }
+
+    // Pages stay a few kilobytes: larger bodies stall in the Lambda test event server
+    @Test
+    void listingIsIndependentOfPageSize() {
+        long smallPage = readStatements("/api/projects?published=false&limit=1");
+        long largePage = readStatements("/api/projects?published=false&limit=5");
+
+        // Page query, then media, tech stack and media variants of the whole page
+        assertEquals(4, smallPage);
+        assertEquals(4, largePage);
+    }
+
+    @Test
+    void summaryListingIsIndependentOfPageSize() {
+        long smallPage = readStatements("/api/projects/summaries?published=false&limit=1");
+        long largePage = readStatements("/api/projects/summaries?published=false&limit=5");
+
+        // Projection, cover images, technology names
+        assertEquals(3, smallPage);
+        assertEquals(3, largePage);
+    }
+
+    @Test
+    void getById() {
+        ProjectDTO project = createProject(3, "java", "quarkus", "postgresql");
+
+        long statements = readStatements("/api/projects/" + project.id);
+
+        // Project with its media, then its tech stack and media variants
+        assertEquals(3, statements);
+    }
+
+    @Test
+    void create() {
+        // Known and new technologies in both, which take one lookup each way. The upsert of the
+        // new ones goes through the JDBC connection directly and is not counted
+        CreateProjectDTO small = projectDTO(createMedia(1), "java", uniqueName());
+        CreateProjectDTO large = projectDTO(createMedia(4), "java", "quarkus", uniqueName(), uniqueName());
+
+        long smallStatements = statementsOf(() -> projectService.create(small));
+        long largeStatements = statementsOf(() -> projectService.create(large));
+
+        assertEquals(7, smallStatements);
+        assertEquals(smallStatements, largeStatements);
+    }
+
+    @Test
+    void createBatch() {
+        List<CreateProjectDTO> small = List.of(projectDTO(createMedia(1), "java"));
+        List<CreateProjectDTO> large = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            large.add(projectDTO(createMedia(2), "java", "quarkus"));
+        }
+
+        long smallStatements = statementsOf(() -> projectService.createBatch(small));
+        long largeStatements = statementsOf(() -> projectService.createBatch(large));
+
+        assertEquals(5, smallStatements);
+        assertEquals(smallStatements, largeStatements);
+    }
+
+    @Test
+    void delete() {
+        ProjectDTO small = createProject(1, "java");
+        ProjectDTO large = createProject(4, "java", "quarkus", "postgresql");
+
+        long smallStatements = statementsOf(() -> projectService.delete(small.id));
+        long largeStatements = statementsOf(() -> projectService.delete(large.id));
+
+        assertEquals(8, smallStatements);
+        assertEquals(smallStatements, largeStatements);
+    }
+
+    @Test
+    void addAndRemoveMedia() {
+        ProjectDTO project = createProject(4, "java", "quarkus");
+        String mediaId = createMedia(1).get(0);
+
+        long added = statementsOf(() -> projectService.addMediaById(project.id, mediaId));
+        long removed = statementsOf(() -> projectService.removeMedia(project.id, mediaId));
+
+        assertEquals(5, added);
+        assertEquals(8, removed);
+    }
+
+    @Test
+    void addAndRemoveTechnology() {
+        ProjectDTO project = createProject(4, "java", "quarkus");
+
+        long added = statementsOf(() -> projectService.addTechnology(project.id, new TechnoDTO(null, "Kotlin", "http://localhost/kotlin.svg")));
+        String technoId = projectService.getById(project.id).techStack.stream()
+                .filter(techno -> techno.technology.equals("Kotlin"))
+                .findFirst()
+                .orElseThrow()
+                .id;
+        long removed = statementsOf(() -> projectService.removeTechnology(project.id, technoId));
+
+        assertEquals(6, added);
+        assertEquals(5, removed);
+    }
+
+    /**
+     * Statements of a GET once warmed up: the first read after a mutation also rebuilds the read model.
+     */
+    private long readStatements(String path) {
+        given().get(path).then().statusCode(200);
+        return statementsOf(() -> given().get(path).then().statusCode(200));
+    }
+
+    private long statementsOf(Runnable action) {
+        statistics.clear();
+        action.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+    private ProjectDTO createProject(int mediaCount, String... technologies) {
+        return projectService.create(projectDTO(createMedia(mediaCount), technologies));
+    }
+
+    private List<String> createMedia(int count) {
+        return QuarkusTransaction.requiringNew().call(() -> {
+            List<String> ids = new ArrayList<>();
+            for (int i = 0; i < count; i++) {
+                String key = "documents/" + UUID.randomUUID() + ".pdf";
+                Media media = new Media(MediaType.PDF, "http://localhost/" + key, "file.pdf", key.substring(10),
+                        "application/pdf", 1024L, null, null);
+                media.storageKey = key;
+                mediaRepository.persist(media);
+                ids.add(media.id);
+            }
+            return ids;
+        });
+    }
+
+    private static String uniqueName() {
+        return "technology-" + UUID.randomUUID();
+    }
+
+    private static CreateProjectDTO projectDTO(List<String> mediaIds, String... technologies) {
+        CreateProjectDTO dto = new CreateProjectDTO();
+        dto.name = "Project " + UUID.randomUUID();
+        dto.description = "Description";
+        dto.shortDescription = "Short description";
+        dto.isPublished = false;
+        dto.featured = false;
+        dto.media = new ArrayList<>(mediaIds);
+        for (String technology : technologies) {
+            dto.techStack.add(new SimpleTechnoDTO(technology, "http://localhost/" + technology + ".svg"));
+        }
+        return dto;
+    }
+}
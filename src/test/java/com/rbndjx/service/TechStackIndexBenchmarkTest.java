@@ -0,0 +1,129 @@
+package com.rbndjx.service;
+
+import com.rbndjx.domain.ProjectRepository;
+import com.rbndjx.domain.Techno;
+import com.rbndjx.dto.CreateProjectDTO;
+import com.rbndjx.dto.SimpleTechnoDTO;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.test.junit.QuarkusTest;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Technology filtering through TechStackIndex against the equivalent join over project_techno,
+ * on a generated catalog. Run with {@code mvn test -Pbenchmark -Dtest=TechStackIndexBenchmarkTest}.
+ */
+@QuarkusTest
+@Tag("benchmark")
+class TechStackIndexBenchmarkTest {
+
+    private static final Logger LOGGER = Logger.getLogger(TechStackIndexBenchmarkTest.class);
+
+    private static final int PROJECTS = 2000;
+    private static final int TECHNOLOGIES = 40;
+    private static final int TECHNOLOGIES_PER_PROJECT = 5;
+    private static final int BATCH_SIZE = 500;
+    private static final int WARMUP_ITERATIONS = 200;
+    private static final int ITERATIONS = 1000;
+
+    @Inject
+    ProjectService projectService;
+
+    @Inject
+    ProjectRepository projectRepository;
+
+    @Inject
+    TechStackIndex techStackIndex;
+
+    @Test
+    void indexAgainstJoin() {
+        // Names unique to this run, so other data in the database never matches
+        String prefix = "bench-" + UUID.randomUUID().toString().substring(0, 8) + "-";
+        createCatalog(prefix);
+
+        List<List<String>> filters = List.of(
+                List.of(prefix + 0),
+                List.of(prefix + 0, prefix + 1),
+                List.of(prefix + 0, prefix + 1, prefix + 2));
+        for (List<String> filter : filters) {
+            for (boolean matchAll : new boolean[]{true, false}) {
+                Set<String> fromIndex = techStackIndex.projectsUsing(filter, matchAll);
+                Set<String> fromJoin = join(filter, matchAll);
+                assertEquals(fromJoin, fromIndex);
+                assertFalse(fromIndex.isEmpty());
+
+                double indexMicros = measure(() -> techStackIndex.projectsUsing(filter, matchAll));
+                double joinMicros = measure(() -> join(filter, matchAll));
+                LOGGER.infof("%d technologies, %s: index %.1f us, join %.1f us (%d projects)",
+                        filter.size(), matchAll ? "all" : "any", indexMicros, joinMicros, fromIndex.size());
+            }
+        }
+    }
+
+    private Set<String> join(List<String> technologies, boolean matchAll) {
+        List<String> names = technologies.stream().map(Techno::normalize).toList();
+        String query = "SELECT p.id FROM Project p JOIN p.techStack t WHERE t.normalizedTechnology IN :names"
+                + " GROUP BY p.id" + (matchAll ? " HAVING COUNT(DISTINCT t.normalizedTechnology) = :count" : "");
+        return QuarkusTransaction.requiringNew().call(() -> {
+            var typedQuery = projectRepository.getEntityManager().createQuery(query, String.class)
+                    .setParameter("names", names);
+            if (matchAll) {
+                typedQuery.setParameter("count", (long) names.size());
+            }
+            return new HashSet<>(typedQuery.getResultList());
+        });
+    }
+
+    private void createCatalog(String prefix) {
+        Random random = new Random(42);
+        List<CreateProjectDTO> batch = new ArrayList<>();
+        for (int i = 0; i < PROJECTS; i++) {
+            CreateProjectDTO dto = new CreateProjectDTO();
+            dto.name = "Project " + prefix + i;
+            dto.description = "Description";
+            dto.shortDescription = "Short description";
+            dto.isPublished = false;
+            dto.featured = false;
+            Set<Integer> technologies = new HashSet<>();
+            while (technologies.size() < TECHNOLOGIES_PER_PROJECT) {
+                technologies.add(random.nextInt(TECHNOLOGIES));
+            }
+            for (int technology : technologies) {
+                dto.techStack.add(new SimpleTechnoDTO(prefix + technology, "http://localhost/" + technology + ".svg"));
+            }
+            batch.add(dto);
+            if (batch.size() == BATCH_SIZE) {
+                projectService.createBatch(batch);
+                batch = new ArrayList<>();
+            }
+        }
+        if (!batch.isEmpty()) {
+            projectService.createBatch(batch);
+        }
+    }
+
+    // Mean duration of one call in microseconds, after a warm-up
+    private static double measure(Supplier<?> call) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            call.get();
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            call.get();
+        }
+        return (System.nanoTime() - start) / 1000.0 / ITERATIONS;
+    }
+}